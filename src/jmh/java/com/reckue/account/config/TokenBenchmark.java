@@ -0,0 +1,78 @@
+package com.reckue.account.config;
+
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Role;
+import com.reckue.account.model.Status;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class TokenBenchmark measures issuing of the access token by {@link CustomTokenEnhancer}
+ * and its verification by {@link JwtTokenStore}.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+
+    private CustomTokenEnhancer tokenEnhancer;
+    private JwtTokenStore tokenStore;
+    private OAuth2Authentication authentication;
+    private OAuth2AccessToken accessToken;
+    private String jwt;
+
+    @Setup
+    public void setUp() throws Exception {
+        tokenEnhancer = new CustomTokenEnhancer();
+        tokenEnhancer.setSigningKey("benchmark-secret-key");
+        tokenEnhancer.afterPropertiesSet();
+        tokenStore = new JwtTokenStore(tokenEnhancer);
+
+        Set<Role> roles = new HashSet<>();
+        roles.add(new Role(1, "ROLE_USER"));
+        Account account = Account.builder()
+                .id("benchmark")
+                .username("benchmark-user")
+                .email("benchmark.user@mail.ru")
+                .status(Status.ACTIVE)
+                .roles(roles)
+                .build();
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "client", account.getAuthorities(),
+                true, Collections.singleton("write"), Collections.emptySet(), null, Collections.emptySet(),
+                Collections.emptyMap());
+        authentication = new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(account, null, account.getAuthorities()));
+
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("benchmark");
+        token.setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)));
+        token.setScope(Collections.singleton("write"));
+        accessToken = token;
+        jwt = tokenEnhancer.enhance(accessToken, authentication).getValue();
+    }
+
+    @Benchmark
+    public OAuth2AccessToken enhance() {
+        return tokenEnhancer.enhance(accessToken, authentication);
+    }
+
+    @Benchmark
+    public OAuth2AccessToken readAccessToken() {
+        return tokenStore.readAccessToken(jwt);
+    }
+}
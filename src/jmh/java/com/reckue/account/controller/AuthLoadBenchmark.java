@@ -0,0 +1,85 @@
+package com.reckue.account.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Class AuthLoadBenchmark measures the throughput of a running instance under many concurrent clients,
+ * to compare execution modes of the request handling, like the blocking Tomcat pool against virtual threads.
+ * The instance is expected at the "load.target" address, http://localhost:9001 by default,
+ * for example started with the develop profile against the local PostgreSQL.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class AuthLoadBenchmark {
+
+    private static final String USERNAME = "loadbenchmark";
+    private static final String PASSWORD = "LoadBenchmark1";
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"access_token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private String target;
+    private HttpClient client;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws Exception {
+        target = System.getProperty("load.target", "http://localhost:9001");
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        // the account may be left over from a previous run
+        send(HttpRequest.newBuilder(URI.create(target + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"" + USERNAME
+                        + "\",\"email\":\"" + USERNAME + "@mail.ru\",\"password\":\"" + PASSWORD + "\"}"))
+                .build());
+        Matcher matcher = ACCESS_TOKEN.matcher(send(tokenRequest()).body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("Cannot log in to " + target);
+        }
+        accessToken = matcher.group(1);
+    }
+
+    @Benchmark
+    public int login() throws Exception {
+        return send(tokenRequest()).statusCode();
+    }
+
+    @Benchmark
+    public int current() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(target + "/auth/current"))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET()
+                .build()).statusCode();
+    }
+
+    private HttpRequest tokenRequest() {
+        String client = Base64.getEncoder().encodeToString("client:secret".getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(target + "/auth/token?scope=write&grant_type=password"
+                + "&username=" + USERNAME + "&password=" + PASSWORD))
+                .header("Authorization", "Basic " + client)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,42 @@
+package com.reckue.account.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class AccountBenchmark measures building of the account authorities.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountBenchmark {
+
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        Set<Role> roles = new HashSet<>();
+        roles.add(new Role(1, "ROLE_USER"));
+        roles.add(new Role(2, "ROLE_ADMIN"));
+        account = Account.builder()
+                .id("benchmark")
+                .username("benchmark-user")
+                .roles(roles)
+                .build();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return account.getAuthorities();
+    }
+}
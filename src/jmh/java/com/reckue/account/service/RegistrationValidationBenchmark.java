@@ -0,0 +1,56 @@
+package com.reckue.account.service;
+
+import com.reckue.account.util.validator.RegisterRequestValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class RegistrationValidationBenchmark compares validation of the register form by regular expressions,
+ * as {@link AuthService#register} did before, with {@link RegisterRequestValidator}.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationValidationBenchmark {
+
+    private final String password = "Passw0rd";
+    private final String email = "benchmark.user@mail.ru";
+    // makes the email expression backtrack over every dot of the domain
+    private final String craftedEmail = "user@" + "a.".repeat(2000) + "!";
+
+    @Benchmark
+    public boolean regexPassword() {
+        return password.matches("(.*).{6,}");
+    }
+
+    @Benchmark
+    public boolean regexEmail() {
+        return email.matches("\\b[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,4}\\b");
+    }
+
+    @Benchmark
+    public boolean regexCraftedEmail() {
+        return craftedEmail.matches("\\b[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,4}\\b");
+    }
+
+    @Benchmark
+    public boolean validatorPassword() {
+        return RegisterRequestValidator.isValidPassword(password);
+    }
+
+    @Benchmark
+    public boolean validatorEmail() {
+        return RegisterRequestValidator.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean validatorCraftedEmail() {
+        return RegisterRequestValidator.isValidEmail(craftedEmail);
+    }
+}
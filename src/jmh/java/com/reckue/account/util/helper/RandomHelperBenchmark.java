@@ -0,0 +1,31 @@
+package com.reckue.account.util.helper;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class RandomHelperBenchmark measures generation of identifiers.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomHelperBenchmark {
+
+    private final String username = "benchmark-user";
+
+    @Benchmark
+    public String generateFromKey() {
+        return RandomHelper.generate(username);
+    }
+
+    @Benchmark
+    public String generateRandom() {
+        return RandomHelper.generate(null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.reckue.account.util.mapper;
+
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Role;
+import com.reckue.account.model.Status;
+import com.reckue.account.transfer.AccountTransfer;
+import org.dozer.DozerBeanMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class AccountMappingBenchmark compares mapping of the account to its DTO
+ * by Dozer and by {@link AccountTransferMapper}.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountMappingBenchmark {
+
+    private DozerBeanMapper dozerMapper;
+    private AccountTransferMapper accountTransferMapper;
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        dozerMapper = new DozerBeanMapper();
+        accountTransferMapper = new AccountTransferMapper(dozerMapper);
+        Set<Role> roles = new HashSet<>();
+        roles.add(new Role(1, "ROLE_USER"));
+        roles.add(new Role(2, "ROLE_ADMIN"));
+        account = Account.builder()
+                .id("benchmark")
+                .username("benchmark-user")
+                .email("benchmark.user@mail.ru")
+                .password("password")
+                .status(Status.ACTIVE)
+                .roles(roles)
+                .created(System.currentTimeMillis())
+                .updated(System.currentTimeMillis())
+                .lastVisit(System.currentTimeMillis())
+                .build();
+        // the first mapping builds the class mappings of dozer
+        dozerMapper.map(account, AccountTransfer.class);
+    }
+
+    @Benchmark
+    public AccountTransfer dozer() {
+        return dozerMapper.map(account, AccountTransfer.class);
+    }
+
+    @Benchmark
+    public AccountTransfer accountTransferMapper() {
+        return accountTransferMapper.map(account, AccountTransfer.class);
+    }
+}
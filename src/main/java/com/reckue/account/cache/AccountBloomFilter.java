@@ -0,0 +1,199 @@
+package com.reckue.account.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Class AccountBloomFilter answers whether a username or an email definitely doesn't exist, so that
+ * lookups of unknown accounts need no query.
+ * The filter is built by a streaming scan of the accounts at startup and rebuilt periodically
+ * to forget deleted accounts. Accounts created by this instance are added before they are inserted,
+ * accounts created by other instances are read by their creation date every few seconds.
+ * Until the first scan completes, every value is reported as possibly present.
+ * Accounts created by other instances since the last read are missing, so lookups which must find them,
+ * like a login right after the registration, don't rely on a miss.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+public class AccountBloomFilter {
+
+    private static final String COUNT_ACCOUNTS = "SELECT count(*) FROM accounts";
+    private static final String SELECT_ACCOUNTS = "SELECT username, email, created FROM accounts";
+    private static final String SELECT_CREATED_ACCOUNTS =
+            "SELECT username, email, created FROM accounts WHERE created >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long overlap;
+    private final Counter skippedByUsername;
+    private final Counter skippedByEmail;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private long lastCreated;
+
+    public AccountBloomFilter(DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${account.bloom.enabled:true}") boolean enabled,
+                              @Value("${account.bloom.expected-insertions:1000000}") long expectedInsertions,
+                              @Value("${account.bloom.fpp:0.01}") double fpp,
+                              @Value("${account.bloom.overlap:10000}") long overlap,
+                              @Value("${account.bloom.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.overlap = overlap;
+        this.skippedByUsername = meterRegistry.counter("account.lookups.skipped", "field", "username");
+        this.skippedByEmail = meterRegistry.counter("account.lookups.skipped", "field", "email");
+    }
+
+    /**
+     * This method is used to add the account before it is inserted.
+     *
+     * @param username name of account
+     * @param email    account email
+     */
+    public void add(String username, String email) {
+        // a filter being built is read first, after the end of the build the built one is the current one
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (current != null) {
+            put(current, username, email);
+        }
+        if (next != null) {
+            put(next, username, email);
+        }
+    }
+
+    /**
+     * This method is used to check whether the account with that username may exist.
+     *
+     * @param username name of account
+     * @return false in case if such account definitely doesn't exist
+     */
+    public boolean mightContainUsername(String username) {
+        if (username == null || mightContain(usernameKey(username))) {
+            return true;
+        }
+        skippedByUsername.increment();
+        return false;
+    }
+
+    /**
+     * This method is used to check whether the account with that email may exist, ignoring case.
+     *
+     * @param email account email
+     * @return false in case if such account definitely doesn't exist
+     */
+    public boolean mightContainEmail(String email) {
+        if (email == null || mightContain(emailKey(email))) {
+            return true;
+        }
+        skippedByEmail.increment();
+        return false;
+    }
+
+    /**
+     * This method is used to build the filter anew by a streaming scan of all accounts,
+     * the filter is sized for twice the current number of accounts.
+     * Only the replacement of the filter is locked, the scan doesn't hold up the refresh.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${account.bloom.rebuild-interval:86400000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Long count = jdbcTemplate.queryForObject(COUNT_ACCOUNTS, Long.class);
+            // every account adds a username and an email
+            BloomFilter next = new BloomFilter(2 * Math.max(expectedInsertions, 2 * (count != null ? count : 0)), fpp);
+            building = next;
+            long[] maxCreated = {0};
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(SELECT_ACCOUNTS, rs -> {
+                    put(next, rs);
+                    maxCreated[0] = Math.max(maxCreated[0], rs.getLong("created"));
+                });
+                return null;
+            });
+            synchronized (this) {
+                filter = next;
+                lastCreated = maxCreated[0];
+            }
+            log.info("Built the filter of {} account names", count);
+        } catch (DataAccessException e) {
+            log.warn("Failed to build the filter of account names", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * This method is used to add the accounts created since the previous read, including ones created
+     * by other instances. Accounts are read with an overlap, so the ones committed late aren't missed.
+     */
+    @Scheduled(fixedDelayString = "${account.bloom.refresh-interval:2000}")
+    public synchronized void refresh() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        try {
+            jdbcTemplate.query(SELECT_CREATED_ACCOUNTS, rs -> {
+                put(current, rs);
+                lastCreated = Math.max(lastCreated, rs.getLong("created"));
+            }, lastCreated - overlap);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read new accounts into the filter of account names", e);
+        }
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(key);
+    }
+
+    private static void put(BloomFilter target, ResultSet rs) throws SQLException {
+        put(target, rs.getString("username"), rs.getString("email"));
+    }
+
+    private static void put(BloomFilter target, String username, String email) {
+        if (username != null) {
+            target.put(usernameKey(username));
+        }
+        if (email != null) {
+            target.put(emailKey(email));
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "username:" + username;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,128 @@
+package com.reckue.account.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reckue.account.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Class AccountCache represents a read-through cache of accounts with two levels:
+ * a bounded in-process level and a pluggable {@link AccountCacheTier}.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+public class AccountCache {
+
+    private final AccountCacheTier secondTier;
+    private final Cache<String, Account> byId;
+    private final Cache<String, Account> byUsername;
+
+    public AccountCache(@Value("${account.cache.max-size:10000}") long maxSize,
+                        @Value("${account.cache.ttl:60000}") long ttl,
+                        AccountCacheTier secondTier,
+                        MeterRegistry meterRegistry) {
+        this.secondTier = secondTier;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "accounts.id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "accounts.username");
+    }
+
+    /**
+     * This method is used to find the account by id in the cache
+     * or to load it by the passed loader in case of a miss on both levels.
+     *
+     * @param id     the object identifier
+     * @param loader function which loads the account from the database
+     * @return the object of class Account if present
+     */
+    public Optional<Account> findById(String id, Function<String, Optional<Account>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> secondTier.getById(key)
+                .or(() -> loader.apply(key).map(this::store))
+                .map(account -> {
+                    byUsername.put(account.getUsername(), account);
+                    return account;
+                })
+                .orElse(null)));
+    }
+
+    /**
+     * This method is used to find the account by username in the cache
+     * or to load it by the passed loader in case of a miss on both levels.
+     *
+     * @param username name of account
+     * @param loader   function which loads the account from the database
+     * @return the object of class Account if present
+     */
+    public Optional<Account> findByUsername(String username, Function<String, Optional<Account>> loader) {
+        return Optional.ofNullable(byUsername.get(username, key -> secondTier.getByUsername(key)
+                .or(() -> loader.apply(key).map(this::store))
+                .map(account -> {
+                    byId.put(account.getId(), account);
+                    return account;
+                })
+                .orElse(null)));
+    }
+
+    /**
+     * This method is used to remove the account from both levels of the cache.
+     * In case of an active transaction the account is removed once more after commit,
+     * so that concurrent readers can't put the old state back.
+     *
+     * @param id       the object identifier
+     * @param username name of account
+     */
+    public void evict(String id, String username) {
+        evictNow(id, username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id, username);
+                }
+            });
+        }
+    }
+
+    /**
+     * This method is used to remove the account from both levels of the cache.
+     *
+     * @param account object of class Account
+     */
+    public void evict(Account account) {
+        evict(account.getId(), account.getUsername());
+    }
+
+    private Account store(Account account) {
+        secondTier.put(account);
+        return account;
+    }
+
+    private void evictNow(String id, String username) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+        secondTier.evict(id, username);
+    }
+}
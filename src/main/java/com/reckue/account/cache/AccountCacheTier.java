@@ -0,0 +1,45 @@
+package com.reckue.account.cache;
+
+import com.reckue.account.model.Account;
+
+import java.util.Optional;
+
+/**
+ * Interface AccountCacheTier represents the second level of the account cache,
+ * which is consulted when the in-process level misses.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public interface AccountCacheTier {
+
+    /**
+     * This method is used to find the cached account by id.
+     *
+     * @param id the object identifier
+     * @return the cached object of class Account if present
+     */
+    Optional<Account> getById(String id);
+
+    /**
+     * This method is used to find the cached account by username.
+     *
+     * @param username name of account
+     * @return the cached object of class Account if present
+     */
+    Optional<Account> getByUsername(String username);
+
+    /**
+     * This method is used to put the account to the cache.
+     *
+     * @param account object of class Account
+     */
+    void put(Account account);
+
+    /**
+     * This method is used to remove the account from the cache.
+     *
+     * @param id       the object identifier
+     * @param username name of account
+     */
+    void evict(String id, String username);
+}
@@ -0,0 +1,86 @@
+package com.reckue.account.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class BloomFilter represents a set of strings which answers "definitely absent" or "possibly present".
+ * Bits are only ever set, with atomic operations, so it is safe for concurrent use without locks.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long size;
+    private final int hashes;
+
+    /**
+     * Constructor with the expected number of values and the desired rate of false positives.
+     *
+     * @param expectedInsertions number of values the filter is sized for
+     * @param fpp                rate of false positives at that number of values
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int length = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(length);
+        this.size = (long) length << 6;
+        this.hashes = Math.max(1, (int) Math.round((double) size / n * Math.log(2)));
+    }
+
+    /**
+     * This method is used to add the value to the filter.
+     *
+     * @param value passed string
+     */
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % size;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+
+    /**
+     * This method is used to check the value against the filter.
+     *
+     * @param value passed string
+     * @return false in case if the value was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < hashes; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % size;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the characters, finalized to spread the bits
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,45 @@
+package com.reckue.account.cache;
+
+import com.reckue.account.model.Account;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class InMemoryAccountCacheTier represents an unbounded in-memory stand-in
+ * for the shared second level of the account cache.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class InMemoryAccountCacheTier implements AccountCacheTier {
+
+    private final Map<String, Account> byId = new ConcurrentHashMap<>();
+    private final Map<String, Account> byUsername = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Account> getById(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public Optional<Account> getByUsername(String username) {
+        return Optional.ofNullable(byUsername.get(username));
+    }
+
+    @Override
+    public void put(Account account) {
+        byId.put(account.getId(), account);
+        byUsername.put(account.getUsername(), account);
+    }
+
+    @Override
+    public void evict(String id, String username) {
+        if (id != null) {
+            byId.remove(id);
+        }
+        if (username != null) {
+            byUsername.remove(username);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.reckue.account.cache;
+
+import com.reckue.account.model.Account;
+
+import java.util.Optional;
+
+/**
+ * Class NoOpAccountCacheTier represents the absent second level of the account cache.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class NoOpAccountCacheTier implements AccountCacheTier {
+
+    @Override
+    public Optional<Account> getById(String id) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Account> getByUsername(String username) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(Account account) {
+    }
+
+    @Override
+    public void evict(String id, String username) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.reckue.account.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.reckue.account.util.helper.DigestHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Class TokenInfoCache represents a bounded cache of already verified access tokens.
+ * Entries are keyed by the token digest and expire together with the token.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+public class TokenInfoCache {
+
+    private final long defaultTtl;
+    private final Cache<String, VerifiedToken> cache;
+
+    public TokenInfoCache(@Value("${security.token.cache.max-size:10000}") long maxSize,
+                          @Value("${security.token.expires-in:3600000}") long defaultTtl,
+                          MeterRegistry meterRegistry) {
+        this.defaultTtl = defaultTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokens");
+    }
+
+    /**
+     * This method is used to get additional information of the token,
+     * verifying the token by the passed reader only if it isn't cached yet.
+     *
+     * @param token  user token
+     * @param reader function which verifies and parses the token
+     * @return additional information from a token
+     */
+    public Map<String, Object> get(String token, Function<String, OAuth2AccessToken> reader) {
+        return cache.get(DigestHelper.sha256(token), key -> {
+            OAuth2AccessToken accessToken = reader.apply(token);
+            long expiresAt = accessToken.getExpiration() != null
+                    ? accessToken.getExpiration().getTime()
+                    : System.currentTimeMillis() + defaultTtl;
+            return new VerifiedToken(Collections.unmodifiableMap(accessToken.getAdditionalInformation()), expiresAt);
+        }).info;
+    }
+
+    /**
+     * Class VerifiedToken holds the parsed claims of the token and the moment it expires.
+     */
+    private static final class VerifiedToken {
+
+        private final Map<String, Object> info;
+        private final long expiresAt;
+
+        private VerifiedToken(Map<String, Object> info, long expiresAt) {
+            this.info = info;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Class TokenExpiry evicts the cached token at the moment the token itself expires.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.reckue.account.config;
 
+import com.reckue.account.metrics.StageTimer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,6 +21,7 @@ import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
 import javax.annotation.PostConstruct;
 import java.util.Base64;
+import java.util.List;
 
 /**
  * Class AuthServerConfig contains configurations as Authentication server.
@@ -33,9 +36,14 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
     @Value("${security.token.secret-key}")
     private String secretKey;
 
+    @Value("${security.token.claims:userId,email,username}")
+    private List<String> claims;
+
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final ObjectProvider<JwtKeyRing> keyRing;
+    private final StageTimer stageTimer;
 
     @PostConstruct
     protected void init() {
@@ -49,7 +57,8 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
 
     /**
      * This method creates a Bean from our CustomTokenEnhancer as a access token converter
-     * which convert a token using secret key.
+     * which convert a token using secret key, or using the RSA key ring in case if
+     * "security.token.algorithm" is RS256.
      *
      * @return converter
      */
@@ -57,6 +66,9 @@ public class AuthServerConfig extends AuthorizationServerConfigurerAdapter {
     public JwtAccessTokenConverter jwtAccessTokenConverter() {
         var converter = new CustomTokenEnhancer();
         converter.setSigningKey(secretKey);
+        converter.setClaims(claims);
+        converter.setKeyRing(keyRing.getIfAvailable());
+        converter.setStageTimer(stageTimer);
         return converter;
     }
 
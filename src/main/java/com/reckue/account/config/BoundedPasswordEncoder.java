@@ -0,0 +1,130 @@
+package com.reckue.account.config;
+
+import com.reckue.account.exception.ServiceUnavailableException;
+import com.reckue.account.metrics.StageTimer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class BoundedPasswordEncoder represents a password encoder which runs the passed encoder
+ * on a dedicated size-limited executor instead of request threads.
+ * Throws {@link ServiceUnavailableException} in case if the queue of the executor is full.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private StageTimer stageTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueDepth) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueDepth), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * This method allows to record the latency of password checks, "password.matches" includes the wait
+     * for a free thread and "password.hash" only the hashing itself.
+     *
+     * @param stageTimer the stage timer or null to record nothing
+     */
+    public void setStageTimer(StageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (stageTimer == null) {
+            return execute(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+        return stageTimer.record("password.matches", StageTimer.NONE, () -> execute(() -> stageTimer.record(
+                "password.hash", StageTimer.NONE, () -> delegate.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * This method is used to encode several passwords in parallel.
+     * No more passwords than the executor has threads are submitted at once,
+     * so that a large batch doesn't fill the queue shared with single requests.
+     * Throws {@link ServiceUnavailableException} in case if the queue has no room for the next passwords,
+     * the same way as for single requests.
+     *
+     * @param rawPasswords passwords to encode
+     * @return encoded passwords in the order of the passed ones
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int window = executor.getMaximumPoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            if (executor.getQueue().remainingCapacity() < window) {
+                throw new ServiceUnavailableException("Too many concurrent password operations, try again later",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            List<Future<String>> futures = new ArrayList<>(window);
+            for (CharSequence rawPassword : rawPasswords.subList(from, Math.min(from + window, rawPasswords.size()))) {
+                futures.add(submit(() -> delegate.encode(rawPassword)));
+            }
+            for (Future<String> future : futures) {
+                encoded.add(await(future));
+            }
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        return await(submit(task));
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many concurrent password operations, try again later",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password operation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password operation failed", e.getCause());
+        }
+    }
+}
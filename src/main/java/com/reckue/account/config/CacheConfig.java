@@ -0,0 +1,31 @@
+package com.reckue.account.config;
+
+import com.reckue.account.cache.AccountCacheTier;
+import com.reckue.account.cache.InMemoryAccountCacheTier;
+import com.reckue.account.cache.NoOpAccountCacheTier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Class CacheConfig sets the settings for the application caches.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * This method is used to choose the second level of the account cache.
+     * The in-memory level is a stand-in for a shared cache and is meant for tests and local runs.
+     *
+     * @param secondTier "none" or "in-memory"
+     * @return an object of the implementation of the interface AccountCacheTier
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AccountCacheTier accountCacheTier(@Value("${account.cache.second-tier:none}") String secondTier) {
+        return "in-memory".equals(secondTier) ? new InMemoryAccountCacheTier() : new NoOpAccountCacheTier();
+    }
+}
@@ -1,13 +1,25 @@
 package com.reckue.account.config;
 
+import com.reckue.account.metrics.StageTimer;
 import com.reckue.account.model.Account;
+import com.reckue.account.util.helper.TimestampHelper;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.common.util.JsonParser;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Class CustomTokenEnhancer represents a custom access token converter.
@@ -16,8 +28,64 @@ import java.util.Map;
  */
 public class CustomTokenEnhancer extends JwtAccessTokenConverter {
 
+    /**
+     * Claims which can be added to the token, by name.
+     */
+    public static final Map<String, Function<Account, Object>> SUPPORTED_CLAIMS = Map.of(
+            "userId", Account::getId,
+            "email", Account::getEmail,
+            "username", Account::getUsername,
+            "status", account -> account.getStatus().name(),
+            "created", Account::getCreated,
+            "updated", Account::getUpdated);
+
+    private final JsonParser jsonParser = JsonParserFactory.create();
+
+    private Set<String> claims = Set.of("userId", "email", "username");
+    private JwtKeyRing keyRing;
+    private StageTimer stageTimer;
+
+    /**
+     * This method allows to sign tokens with the keys of the ring instead of the shared signing key,
+     * the id of the key is added to the header of the token.
+     *
+     * @param keyRing the RSA keys or null to use the signing key
+     */
+    public void setKeyRing(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * This method allows to record the latency of building and signing tokens as the stage "token.enhance".
+     *
+     * @param stageTimer the stage timer or null to record nothing
+     */
+    public void setStageTimer(StageTimer stageTimer) {
+        this.stageTimer = stageTimer;
+    }
+
+    /**
+     * This method allows to choose the claims added to the token, "userId" is always added.
+     * Throws {@link IllegalArgumentException} in case if a claim isn't supported.
+     *
+     * @param claims names of the claims
+     */
+    public void setClaims(Collection<String> claims) {
+        Set<String> names = new LinkedHashSet<>();
+        names.add("userId");
+        for (String claim : claims) {
+            if (!SUPPORTED_CLAIMS.containsKey(claim)) {
+                throw new IllegalArgumentException("Unsupported claim '" + claim + "', supported are "
+                        + SUPPORTED_CLAIMS.keySet());
+            }
+            names.add(claim);
+        }
+        this.claims = names;
+    }
+
     /**
      * This method allows to add additional information to token.
+     * The date of issue is always added, so that the tokens of an account can be revoked all at once.
      *
      * @param accessToken    JWT
      * @param authentication OAuth2Authentication
@@ -25,16 +93,74 @@ public class CustomTokenEnhancer extends JwtAccessTokenConverter {
      */
     @Override
     public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        if (stageTimer == null) {
+            return enhanceToken(accessToken, authentication);
+        }
+        return stageTimer.record("token.enhance",
+                StageTimer.grantType(authentication.getOAuth2Request().getGrantType()),
+                () -> enhanceToken(accessToken, authentication));
+    }
+
+    private OAuth2AccessToken enhanceToken(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
         Account account = (Account) authentication.getPrincipal();
 
         Map<String, Object> info = new LinkedHashMap<>(accessToken.getAdditionalInformation());
-        info.put("userId", account.getId());
-        info.put("email", account.getEmail());
-        info.put("username", account.getUsername());
+        claims.forEach(claim -> info.put(claim, SUPPORTED_CLAIMS.get(claim).apply(account)));
+        info.put("issued", TimestampHelper.getCurrentTimestamp());
 
         DefaultOAuth2AccessToken customAccessToken = new DefaultOAuth2AccessToken(accessToken);
         customAccessToken.setAdditionalInformation(info);
 
         return super.enhance(customAccessToken, authentication);
     }
+
+    /**
+     * This method allows to sign the token with the active key of the ring.
+     *
+     * @param accessToken    JWT
+     * @param authentication OAuth2Authentication
+     * @return the encoded token
+     */
+    @Override
+    protected String encode(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+        if (keyRing == null) {
+            return super.encode(accessToken, authentication);
+        }
+        String content = jsonParser.formatMap(getAccessTokenConverter().convertAccessToken(accessToken, authentication));
+        JwtKeyRing.SigningKey key = keyRing.getActive();
+        return JwtHelper.encode(content, key.getSigner(), Map.of("kid", key.getId())).getEncoded();
+    }
+
+    /**
+     * This method allows to verify the token with the key of the ring named in the header of the token.
+     * Throws {@link InvalidTokenException} in case if the key is unknown or the signature is invalid.
+     *
+     * @param token JWT
+     * @return claims of the token
+     */
+    @Override
+    protected Map<String, Object> decode(String token) {
+        if (keyRing == null) {
+            return super.decode(token);
+        }
+        JwtKeyRing.SigningKey key;
+        try {
+            key = keyRing.get(JwtHelper.headers(token).get("kid"));
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+        if (key == null) {
+            throw new InvalidTokenException("The token is signed with an unknown key");
+        }
+        try {
+            Jwt jwt = JwtHelper.decodeAndVerify(token, key.getVerifier());
+            Map<String, Object> map = jsonParser.parseMap(jwt.getClaims());
+            if (map.get(AccessTokenConverter.EXP) instanceof Integer) {
+                map.put(AccessTokenConverter.EXP, ((Integer) map.get(AccessTokenConverter.EXP)).longValue());
+            }
+            return map;
+        } catch (RuntimeException e) {
+            throw new InvalidTokenException("Cannot convert access token to JSON", e);
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package com.reckue.account.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class DataSourceConfig sets up the routing of read-only transactions to the read replicas.
+ * It is active only in case if "account.datasource.replicas" is set, otherwise the single
+ * data source of Spring Boot is used.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.datasource.replicas")
+public class DataSourceConfig {
+
+    /**
+     * This method creates the pool of the primary from the usual "spring.datasource" settings.
+     *
+     * @param properties settings of the data source
+     * @return pool of the primary
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * This method creates the pools of the replicas with the settings and credentials of the primary
+     * and the data source routing between all of them.
+     *
+     * @param primaryDataSource pool of the primary
+     * @param meterRegistry     registry of the metrics
+     * @param replicas          JDBC URLs of the replicas
+     * @param lagQuery          query returning the lag of a replica, empty to never check the lag
+     * @param maxLag            the largest lag in milliseconds a replica is still used with
+     * @param stickiness        milliseconds the reads of a user go to the primary after a write of the user
+     * @return routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${account.datasource.replicas}") List<String> replicas,
+            @Value("${account.datasource.lag-query:#{null}}") String lagQuery,
+            @Value("${account.datasource.max-lag:1000}") long maxLag,
+            @Value("${account.datasource.stickiness:5000}") long stickiness) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            if (replicas.get(i).isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(replicas.get(i).trim());
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            // an unavailable replica must not prevent the start, its reads go to the primary
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, pools,
+                lagQuery != null ? lagQuery : ReplicaRoutingDataSource.POSTGRESQL_LAG_QUERY,
+                maxLag, stickiness, meterRegistry);
+    }
+
+    /**
+     * This method creates the data source used by the application, the connection is taken
+     * from the routing data source only when the first statement runs, when the transaction is already
+     * known to be read-only or not.
+     *
+     * @param replicaRoutingDataSource routing data source
+     * @return data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
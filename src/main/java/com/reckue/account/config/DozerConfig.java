@@ -1,8 +1,10 @@
 package com.reckue.account.config;
 
+import com.reckue.account.util.mapper.AccountTransferMapper;
 import org.dozer.DozerBeanMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 /**
  * Class DozerConfig sets the settings for dozer.
@@ -21,5 +23,17 @@ public class DozerConfig {
     public DozerBeanMapper getDozerBeanMapper() {
         return new DozerBeanMapper();
     }
-}
 
+    /**
+     * This method is used to create the mapper injected into the controllers.
+     * Accounts and roles are mapped without reflection, the rest is passed to dozer.
+     *
+     * @param dozerBeanMapper an object of DozerBeanMapper class
+     * @return an object of AccountTransferMapper class
+     */
+    @Bean
+    @Primary
+    public AccountTransferMapper accountTransferMapper(DozerBeanMapper dozerBeanMapper) {
+        return new AccountTransferMapper(dozerBeanMapper);
+    }
+}
@@ -0,0 +1,314 @@
+package com.reckue.account.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reckue.account.util.helper.DigestHelper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.Signer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class JwtKeyRing represents the RSA keys used to sign and verify tokens.
+ * The keys are either loaded from a keystore, which is reloaded when the file changes,
+ * or generated in memory and rotated periodically. The next generated key is published
+ * in the key set before it is used, retired keys are kept to verify the tokens issued with them.
+ * Generated keys live only as long as the instance, so they are allowed only where explicitly enabled
+ * for a single instance, otherwise tokens of one instance would be rejected by the others and after a restart.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "RS256")
+public class JwtKeyRing {
+
+    private static final int KEY_SIZE = 2048;
+
+    private final Resource keystore;
+    private final String keystoreType;
+    private final char[] keystorePassword;
+    private final String activeAlias;
+    private final long rotationInterval;
+    private final long retention;
+    private final ObjectMapper objectMapper;
+
+    private volatile Keys keys;
+    private long keystoreModified;
+
+    public JwtKeyRing(@Value("${security.token.keys.keystore:#{null}}") Resource keystore,
+                      @Value("${security.token.keys.keystore-type:PKCS12}") String keystoreType,
+                      @Value("${security.token.keys.keystore-password:}") String keystorePassword,
+                      @Value("${security.token.keys.active-alias:}") String activeAlias,
+                      @Value("${security.token.keys.rotation-interval:604800000}") long rotationInterval,
+                      @Value("${security.token.keys.retention:2592000000}") long retention,
+                      @Value("${security.token.keys.allow-generated:false}") boolean allowGenerated,
+                      ObjectMapper objectMapper) {
+        this.keystore = keystore;
+        this.keystoreType = keystoreType;
+        this.keystorePassword = keystorePassword.toCharArray();
+        this.activeAlias = activeAlias;
+        this.rotationInterval = rotationInterval;
+        this.retention = retention;
+        this.objectMapper = objectMapper;
+        if (keystore != null) {
+            load();
+        } else if (!allowGenerated) {
+            throw new IllegalStateException("RS256 requires the shared keystore security.token.keys.keystore, "
+                    + "set security.token.keys.allow-generated to use keys generated in memory by a single instance");
+        } else {
+            log.warn("Signing keys are generated in memory, tokens are valid only on this instance until it stops");
+            long now = System.currentTimeMillis();
+            publish(generate(now), List.of(generate(now)));
+        }
+    }
+
+    /**
+     * This method is used to get the key which signs new tokens.
+     *
+     * @return the active key
+     */
+    public SigningKey getActive() {
+        return keys.active;
+    }
+
+    /**
+     * This method is used to get the key which verifies tokens signed with the passed key id.
+     *
+     * @param id the key id from the token header
+     * @return the key or null in case if the key is unknown or already removed
+     */
+    public SigningKey get(String id) {
+        return id != null ? keys.byId.get(id) : null;
+    }
+
+    /**
+     * This method is used to get the public keys in the JWK set format.
+     *
+     * @return the serialized key set with its ETag
+     */
+    public JwkSet getJwkSet() {
+        return keys.jwkSet;
+    }
+
+    /**
+     * This method reloads the keystore in case if it was changed,
+     * or rotates the generated keys in case if the active key is older than the rotation interval.
+     */
+    @Scheduled(fixedDelayString = "${security.token.keys.refresh-interval:60000}")
+    public synchronized void refresh() {
+        if (keystore != null) {
+            if (lastModified() != keystoreModified) {
+                load();
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Keys current = keys;
+        if (now - current.active.created < rotationInterval) {
+            return;
+        }
+        List<SigningKey> published = new ArrayList<>();
+        for (SigningKey key : current.byId.values()) {
+            if (key == current.active) {
+                published.add(key.retire(now));
+            } else if (key.retired == 0 && key != current.next) {
+                published.add(key);
+            } else if (key.retired != 0 && now - key.retired < retention) {
+                published.add(key);
+            }
+        }
+        published.add(generate(now));
+        publish(current.next.activate(now), published);
+        log.info("Rotated the signing key, the active key is {}", current.next.id);
+    }
+
+    private void load() {
+        keystoreModified = lastModified();
+        try (InputStream in = keystore.getInputStream()) {
+            KeyStore store = KeyStore.getInstance(keystoreType);
+            store.load(in, keystorePassword);
+            SigningKey active = null;
+            List<SigningKey> published = new ArrayList<>();
+            for (String alias : Collections.list(store.aliases())) {
+                if (!store.isKeyEntry(alias) || !(store.getCertificate(alias).getPublicKey() instanceof RSAPublicKey)) {
+                    continue;
+                }
+                Date created = store.getCreationDate(alias);
+                SigningKey key = new SigningKey(alias,
+                        (RSAPublicKey) store.getCertificate(alias).getPublicKey(),
+                        (RSAPrivateKey) store.getKey(alias, keystorePassword),
+                        created != null ? created.getTime() : 0);
+                published.add(key);
+                if (activeAlias.isEmpty() ? active == null || key.created > active.created : alias.equals(activeAlias)) {
+                    active = key;
+                }
+            }
+            if (active == null) {
+                throw new IllegalStateException("The keystore contains no RSA key"
+                        + (activeAlias.isEmpty() ? "" : " with alias '" + activeAlias + "'"));
+            }
+            published.remove(active);
+            publish(active, published);
+            log.info("Loaded {} signing keys from {}, the active key is {}",
+                    published.size() + 1, keystore.getDescription(), active.id);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot load the keystore " + keystore.getDescription(), e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return keystore.lastModified();
+        } catch (IOException e) {
+            // resources inside an archive are never reloaded
+            return keystoreModified;
+        }
+    }
+
+    private void publish(SigningKey active, List<SigningKey> others) {
+        Map<String, SigningKey> byId = new LinkedHashMap<>();
+        byId.put(active.id, active);
+        SigningKey next = null;
+        for (SigningKey key : others) {
+            byId.put(key.id, key);
+            if (key.signer != null && key.retired == 0 && key.created >= active.created) {
+                next = key;
+            }
+        }
+        List<Map<String, String>> jwks = new ArrayList<>();
+        byId.values().forEach(key -> jwks.add(key.toJwk()));
+        try {
+            String json = objectMapper.writeValueAsString(Map.of("keys", jwks));
+            keys = new Keys(active, next, Collections.unmodifiableMap(byId), new JwkSet(json, DigestHelper.sha256(json)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the key set", e);
+        }
+    }
+
+    private SigningKey generate(long now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(KEY_SIZE);
+            KeyPair pair = generator.generateKeyPair();
+            RSAPublicKey publicKey = (RSAPublicKey) pair.getPublic();
+            return new SigningKey(DigestHelper.sha256(Base64.getEncoder().encodeToString(publicKey.getEncoded())),
+                    publicKey, (RSAPrivateKey) pair.getPrivate(), now);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA algorithm is not available", e);
+        }
+    }
+
+    /**
+     * Class SigningKey represents a key pair with the id added to the headers of the tokens.
+     */
+    @Getter
+    public static final class SigningKey {
+
+        private final String id;
+        private final RSAPublicKey publicKey;
+        private final Signer signer;
+        private final RsaVerifier verifier;
+        private final long created;
+        private final long retired;
+
+        private SigningKey(String id, RSAPublicKey publicKey, RSAPrivateKey privateKey, long created) {
+            this(id, publicKey, new RsaSigner(privateKey), created, 0);
+        }
+
+        private SigningKey(String id, RSAPublicKey publicKey, Signer signer, long created, long retired) {
+            this.id = id;
+            this.publicKey = publicKey;
+            this.signer = signer;
+            this.verifier = new RsaVerifier(publicKey);
+            this.created = created;
+            this.retired = retired;
+        }
+
+        private SigningKey activate(long now) {
+            // the rotation interval counts from the moment the key becomes active
+            return new SigningKey(id, publicKey, signer, now, 0);
+        }
+
+        private SigningKey retire(long now) {
+            return new SigningKey(id, publicKey, null, created, now);
+        }
+
+        private Map<String, String> toJwk() {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("kid", id);
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("n", encode(publicKey.getModulus()));
+            jwk.put("e", encode(publicKey.getPublicExponent()));
+            return jwk;
+        }
+
+        private static String encode(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            // the value is unsigned, drop the sign byte
+            if (bytes.length > 1 && bytes[0] == 0) {
+                bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+    }
+
+    /**
+     * Class JwkSet holds the serialized public keys and the ETag of the serialized value.
+     */
+    @Getter
+    public static final class JwkSet {
+
+        private final String json;
+        private final String etag;
+
+        private JwkSet(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Class Keys is an immutable snapshot of the ring, replaced as a whole on every change.
+     */
+    private static final class Keys {
+
+        private final SigningKey active;
+        private final SigningKey next;
+        private final Map<String, SigningKey> byId;
+        private final JwkSet jwkSet;
+
+        private Keys(SigningKey active, SigningKey next, Map<String, SigningKey> byId, JwkSet jwkSet) {
+            this.active = active;
+            this.next = next;
+            this.byId = byId;
+            this.jwkSet = jwkSet;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reckue.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class PoolTuningConfig sizes the connection pools and exports their saturation in the "performance" profile.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Configuration
+@Profile("performance")
+public class PoolTuningConfig {
+
+    /**
+     * This method creates the post processor deriving the size of the pool from the database resources:
+     * twice the cores of the database plus its effective spindles, shared by all instances of the service.
+     * Replica pools copy the size of the primary pool.
+     *
+     * @param environment the settings of the application
+     * @return the post processor of the pools
+     */
+    @Bean
+    public static BeanPostProcessor poolSizingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    HikariDataSource pool = (HikariDataSource) bean;
+                    int cores = environment.getProperty("account.datasource.pool.database-cores", Integer.class,
+                            Runtime.getRuntime().availableProcessors());
+                    int spindles = environment.getProperty("account.datasource.pool.effective-spindles", Integer.class, 1);
+                    int instances = environment.getProperty("account.datasource.pool.instances", Integer.class, 1);
+                    int size = Math.max(2, (cores * 2 + spindles) / Math.max(1, instances));
+                    pool.setMaximumPoolSize(size);
+                    // a fixed size pool never opens connections under load
+                    pool.setMinimumIdle(size);
+                    log.info("Connection pool {} is sized to {} connections", beanName, size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * This method creates the gauge of the share of busy connections in every pool.
+     * A saturation near one together with growing pending threads means requests wait for connections.
+     *
+     * @param dataSources       the data sources of the application
+     * @param routingDataSource routing data source in case if the read replicas are used
+     * @return the binder of the gauges
+     */
+    @Bean
+    public MeterBinder poolSaturationMetrics(ObjectProvider<DataSource> dataSources,
+                                             ObjectProvider<ReplicaRoutingDataSource> routingDataSource) {
+        return registry -> {
+            List<HikariDataSource> pools = new ArrayList<>();
+            dataSources.forEach(dataSource -> {
+                try {
+                    if (dataSource instanceof HikariDataSource) {
+                        pools.add((HikariDataSource) dataSource);
+                    } else if (!(dataSource instanceof ReplicaRoutingDataSource) && dataSource.isWrapperFor(HikariDataSource.class)) {
+                        HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                        if (!pools.contains(pool)) {
+                            pools.add(pool);
+                        }
+                    }
+                } catch (SQLException e) {
+                    log.warn("Cannot unwrap the data source {}", dataSource, e);
+                }
+            });
+            routingDataSource.ifAvailable(routing -> pools.addAll(routing.getReplicaPools()));
+            for (HikariDataSource pool : pools) {
+                Gauge.builder("account.datasource.pool.saturation", pool, PoolTuningConfig::saturation)
+                        .tag("pool", pool.getPoolName())
+                        .description("Share of the connections of the pool in use")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        return bean != null ? (double) bean.getActiveConnections() / pool.getMaximumPoolSize() : 0;
+    }
+}
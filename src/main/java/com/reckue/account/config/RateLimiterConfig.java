@@ -0,0 +1,56 @@
+package com.reckue.account.config;
+
+import com.reckue.account.limiter.LoginRateLimitFilter;
+import com.reckue.account.limiter.LoginRateLimiter;
+import com.reckue.account.limiter.RateLimiterStore;
+import com.reckue.account.limiter.StripedRateLimiterStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Class RateLimiterConfig sets the settings for the login rate limiter.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Configuration
+public class RateLimiterConfig {
+
+    /**
+     * This method is used to create the state of the rate limiters kept in memory of this instance.
+     * A bean of another implementation replaces it, for example one shared by all instances.
+     *
+     * @param stripes number of counters in each row
+     * @return an object of the implementation of the interface RateLimiterStore
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimiterStore rateLimiterStore(@Value("${security.login.rate-limit.stripes:65536}") int stripes) {
+        return new StripedRateLimiterStore(stripes);
+    }
+
+    /**
+     * This method registers the rate limit filter of the token endpoint before the security filters.
+     *
+     * @param loginRateLimiter         the limiter
+     * @param handlerExceptionResolver resolver writing the rejections
+     * @return registration of the filter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "security.login.rate-limit.enabled", matchIfMissing = true)
+    public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilter(
+            LoginRateLimiter loginRateLimiter,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration =
+                new FilterRegistrationBean<>(new LoginRateLimitFilter(loginRateLimiter, handlerExceptionResolver));
+        registration.addUrlPatterns("/auth/token");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+}
@@ -0,0 +1,225 @@
+package com.reckue.account.config;
+
+import com.reckue.account.util.helper.RequestUserHelper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Class ReplicaRoutingDataSource sends the connections of read-only transactions to the replicas
+ * in turn and everything else to the primary.
+ * A replica lagging behind the primary more than allowed is skipped until it catches up.
+ * After a write transaction of a user, reads of the same user go to the primary for a while,
+ * so the user always sees the own writes.
+ * It must be wrapped in a lazy connection proxy, because the transaction is marked as read-only
+ * only after its connection is requested.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    /**
+     * Lag of a PostgreSQL replica in milliseconds, zero in case if it has replayed everything it received.
+     */
+    public static final String POSTGRESQL_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()"
+            + " THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final long maxLag;
+    private final long stickiness;
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+
+    /**
+     * Constructor with the pools and the settings of the routing.
+     *
+     * @param primary      pool of the primary
+     * @param replicaPools pools of the replicas
+     * @param lagQuery     query returning the lag of a replica in milliseconds, empty to never check the lag
+     * @param maxLag       the largest lag in milliseconds a replica is still used with
+     * @param stickiness   milliseconds the reads of a user go to the primary after a write of the user
+     * @param meterRegistry registry of the metrics
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, String lagQuery,
+                                    long maxLag, long stickiness, MeterRegistry meterRegistry) {
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.stickiness = stickiness;
+        this.stickyReads = meterRegistry.counter("account.datasource.primary-reads", "reason", "sticky");
+        this.laggingReads = meterRegistry.counter("account.datasource.primary-reads", "reason", "lag");
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool.getPoolName(), pool);
+            replicas.add(replica);
+            targets.put(replica.key, pool);
+            meterRegistry.gauge("account.datasource.replica.lag", Tags.of("replica", replica.key), replica,
+                    r -> r.lag == Long.MAX_VALUE ? Double.NaN : r.lag);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * This method is used to run reads which must see the latest committed state on the primary,
+     * even within a read-only transaction, like loading an account into a cache which outlives the lag
+     * of the replicas. The connection of a transaction is taken by its first statement,
+     * so the passed reads must be the first statements of their transaction.
+     * Without the replicas configured it just runs the reads.
+     *
+     * @param action the reads
+     * @param <T>    type of the result
+     * @return the result of the reads
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // an empty list of replicas, like "account.datasource.replicas=", leaves everything on the primary
+        if (PRIMARY_ONLY.get() != null || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        String userId = RequestUserHelper.getUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite(userId);
+            }
+            return PRIMARY;
+        }
+        if (userId != null) {
+            Long until = recentWriters.get(userId);
+            if (until != null) {
+                if (until > System.currentTimeMillis()) {
+                    stickyReads.increment();
+                    return PRIMARY;
+                }
+                recentWriters.remove(userId, until);
+            }
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lag <= maxLag) {
+                return replica.key;
+            }
+        }
+        laggingReads.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * This method is used to measure the lag of every replica.
+     * A replica which can't be reached is treated as infinitely lagging.
+     * Users whose stickiness to the primary has ended are forgotten here too.
+     */
+    @Scheduled(fixedDelayString = "${account.datasource.lag-check-interval:2000}")
+    public void checkLag() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until <= now);
+        for (Replica replica : replicas) {
+            if (lagQuery.isEmpty()) {
+                replica.lag = 0;
+                continue;
+            }
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                replica.lag = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+            } catch (SQLException e) {
+                if (replica.lag != Long.MAX_VALUE) {
+                    log.warn("Replica {} is not available, its reads go to the primary", replica.key, e);
+                }
+                replica.lag = Long.MAX_VALUE;
+            }
+        }
+    }
+
+    /**
+     * This method is used to get the pools of the replicas.
+     *
+     * @return pools of the replicas
+     */
+    public List<HikariDataSource> getReplicaPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        replicas.forEach(replica -> pools.add(replica.dataSource));
+        return pools;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void recordWrite(String userId) {
+        recentWriters.put(userId, System.currentTimeMillis() + stickiness);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the window counts from the commit, which makes the write visible
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    recentWriters.put(userId, System.currentTimeMillis() + stickiness);
+                }
+            });
+        }
+    }
+
+    /**
+     * Class Replica holds the pool of a replica and its last measured lag.
+     */
+    private static final class Replica {
+
+        private final String key;
+        private final HikariDataSource dataSource;
+        private volatile long lag = Long.MAX_VALUE;
+
+        private Replica(String key, HikariDataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.reckue.account.config;
 
+import com.reckue.account.metrics.StageTimer;
+import com.reckue.account.util.helper.BCryptHelper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -18,23 +21,52 @@ import javax.servlet.http.HttpServletResponse;
  *
  * @author Kamila Meshcheryakova
  */
+@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
+    @Value("${security.password.cost:0}")
+    private int cost;
+
+    @Value("${security.password.target-latency:250}")
+    private long targetLatency;
+
+    @Value("${security.password.min-cost:12}")
+    private int minCost;
+
+    @Value("${security.password.max-cost:16}")
+    private int maxCost;
+
+    @Value("${security.password.threads:0}")
+    private int threads;
+
+    @Value("${security.password.queue-depth:64}")
+    private int queueDepth;
+
     private final UserDetailsService userDetailsService;
 
+    private final StageTimer stageTimer;
+
     private final String[] AUTH_SWAGGER = {"/v2/api-docs", "/swagger-resources/**",
             "/", "/swagger-ui.html", "/webjars/**"};
 
     /**
      * This method is used to encode the password.
+     * The BCrypt cost is fixed by the settings or calibrated from the target latency at startup,
+     * hashing runs on a dedicated executor limited by the number of threads and the queue depth.
      *
      * @return an encoded password
      */
     @Bean
-    public PasswordEncoder encoder() {
-        return new BCryptPasswordEncoder(12);
+    public BoundedPasswordEncoder encoder() {
+        int strength = cost > 0 ? cost : BCryptHelper.calibrate(targetLatency, minCost, maxCost);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("Password hashing uses BCrypt cost {} on {} threads with queue depth {}",
+                strength, poolSize, queueDepth);
+        var encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueDepth);
+        encoder.setStageTimer(stageTimer);
+        return encoder;
     }
 
     @Override
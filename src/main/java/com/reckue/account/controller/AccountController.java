@@ -2,16 +2,25 @@ package com.reckue.account.controller;
 
 import com.reckue.account.controller.api.AccountApi;
 import com.reckue.account.exception.AuthenticationException;
+import com.reckue.account.metrics.StageTimer;
+import com.reckue.account.model.Account;
+import com.reckue.account.service.AccountExportService;
 import com.reckue.account.service.AccountService;
 import com.reckue.account.service.SecurityService;
+import com.reckue.account.transfer.AccountSliceTransfer;
 import com.reckue.account.transfer.AccountTransfer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.dozer.Mapper;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,7 +37,9 @@ public class AccountController implements AccountApi {
 
     private final Mapper mapper;
     private final AccountService accountService;
+    private final AccountExportService accountExportService;
     private final SecurityService securityService;
+    private final StageTimer stageTimer;
 
     /**
      * This type of request allows to get all the users that meet the requirements.
@@ -45,13 +56,54 @@ public class AccountController implements AccountApi {
                                         @RequestParam(required = false, defaultValue = "0") int offset,
                                         @RequestParam(required = false, defaultValue = "id") String sort,
                                         @RequestParam(required = false, defaultValue = "false") boolean desc) {
-        List<AccountTransfer> accounts = accountService.findAll(limit, offset, sort, desc).stream()
+        List<AccountTransfer> accounts = stageTimer.record("accounts.find", StageTimer.NONE,
+                () -> accountService.findAll(limit, offset, sort, desc)).stream()
                 .map(account -> mapper.map(account, AccountTransfer.class))
                 .collect(Collectors.toList());
         log.debug("Retrieved all accounts by limit={}, offset={}, sort={}, desc={}", limit, offset, sort, desc);
         return accounts;
     }
 
+    /**
+     * This type of request allows to get the accounts slice by slice,
+     * where each slice is followed by the continuation token of the next one.
+     *
+     * @param limit  quantity of objects
+     * @param cursor continuation token of the previous slice, absent for the first slice
+     * @param sort   parameter for sorting, only indexed parameters are allowed
+     * @param desc   sorting descending
+     * @return slice of objects of class AccountTransfer with the continuation token
+     */
+    @GetMapping("/slice")
+    public AccountSliceTransfer getSlice(@RequestParam(required = false, defaultValue = "10") int limit,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false, defaultValue = "id") String sort,
+                                         @RequestParam(required = false, defaultValue = "false") boolean desc) {
+        Slice<Account> slice = stageTimer.record("accounts.find", StageTimer.NONE,
+                () -> accountService.findAllAfter(limit, cursor, sort, desc));
+        List<AccountTransfer> accounts = slice.getContent().stream()
+                .map(account -> mapper.map(account, AccountTransfer.class))
+                .collect(Collectors.toList());
+        log.debug("Retrieved slice of accounts by limit={}, cursor={}, sort={}, desc={}", limit, cursor, sort, desc);
+        return new AccountSliceTransfer(accounts, accountService.getCursor(slice, sort, desc));
+    }
+
+    /**
+     * This type of request allows to export the accounts as newline-delimited JSON.
+     * The accounts are streamed straight from the database, so the full table can be exported.
+     *
+     * @param updated the earliest date of update of exported accounts, absent for a full export
+     * @return stream of objects of class AccountTransfer, one per line
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false, defaultValue = "0") long updated) {
+        log.debug("Exporting accounts updated since {}", updated);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> accountExportService.export(updated, out));
+    }
+
     /**
      * This type of request allows to get the account by id.
      *
@@ -60,7 +112,8 @@ public class AccountController implements AccountApi {
      */
     @GetMapping("/id/{id}")
     public AccountTransfer getById(@PathVariable String id) {
-        return mapper.map(accountService.findById(id), AccountTransfer.class);
+        return mapper.map(stageTimer.record("accounts.find", StageTimer.NONE,
+                () -> accountService.findById(id)), AccountTransfer.class);
     }
 
     /**
@@ -71,7 +124,35 @@ public class AccountController implements AccountApi {
      */
     @GetMapping("/username/{username}")
     public AccountTransfer getByUsername(@PathVariable String username) {
-        return mapper.map(accountService.findByUsername(username), AccountTransfer.class);
+        return mapper.map(stageTimer.record("accounts.find", StageTimer.NONE,
+                () -> accountService.findByUsername(username)), AccountTransfer.class);
+    }
+
+    /**
+     * This type of request allows to get the accounts by a list of ids.
+     *
+     * @param ids the object identifiers
+     * @return list of found objects of class AccountTransfer
+     */
+    @PostMapping("/batch/id")
+    public List<AccountTransfer> getAllById(@RequestBody List<String> ids) {
+        return stageTimer.record("accounts.find", StageTimer.NONE, () -> accountService.findAllById(ids)).stream()
+                .map(account -> mapper.map(account, AccountTransfer.class))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This type of request allows to get the accounts by a list of usernames.
+     *
+     * @param usernames the account usernames
+     * @return list of found objects of class AccountTransfer
+     */
+    @PostMapping("/batch/username")
+    public List<AccountTransfer> getAllByUsername(@RequestBody List<String> usernames) {
+        return stageTimer.record("accounts.find", StageTimer.NONE,
+                () -> accountService.findAllByUsername(usernames)).stream()
+                .map(account -> mapper.map(account, AccountTransfer.class))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -84,7 +165,8 @@ public class AccountController implements AccountApi {
     @DeleteMapping("/delete/id/{id}")
     // @PreAuthorize("hasRole('ROLE_ADMIN')") doesn't work
     public void deleteById(@PathVariable String id, HttpServletRequest request) {
-        accountService.deleteById(id, securityService.checkAndGetInfo(request));
+        Map<String, Object> tokenInfo = securityService.checkAndGetInfo(request);
+        stageTimer.run("accounts.delete", StageTimer.NONE, () -> accountService.deleteById(id, tokenInfo));
     }
 
     /**
@@ -97,6 +179,7 @@ public class AccountController implements AccountApi {
     @DeleteMapping("/delete/username/{username}")
     //  @PreAuthorize("hasRole('ROLE_ADMIN')") doesn't work
     public void deleteByUsername(@PathVariable String username, HttpServletRequest request) {
-        accountService.deleteByUsername(username, securityService.checkAndGetInfo(request));
+        Map<String, Object> tokenInfo = securityService.checkAndGetInfo(request);
+        stageTimer.run("accounts.delete", StageTimer.NONE, () -> accountService.deleteByUsername(username, tokenInfo));
     }
 }
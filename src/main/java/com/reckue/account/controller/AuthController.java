@@ -2,10 +2,14 @@ package com.reckue.account.controller;
 
 import com.reckue.account.controller.api.AuthApi;
 import com.reckue.account.exception.AuthenticationException;
+import com.reckue.account.metrics.StageTimer;
+import com.reckue.account.model.Account;
 import com.reckue.account.service.AuthService;
 import com.reckue.account.service.SecurityService;
 import com.reckue.account.transfer.AccountTransfer;
+import com.reckue.account.transfer.AvailabilityTransfer;
 import com.reckue.account.transfer.RegisterRequest;
+import com.reckue.account.transfer.RegisterResultTransfer;
 import io.swagger.annotations.ApiParam;
 import lombok.RequiredArgsConstructor;
 import org.dozer.Mapper;
@@ -19,7 +23,9 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import java.security.Principal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Class AuthСontroller represents a REST-Controller with post and get operations connection with authentication.
@@ -36,6 +42,7 @@ public class AuthController implements AuthApi {
     private final AuthService authService;
     private final TokenEndpoint tokenEndpoint;
     private final SecurityService securityService;
+    private final StageTimer stageTimer;
 
     /**
      * This type of request allows to register a new account.
@@ -45,7 +52,42 @@ public class AuthController implements AuthApi {
      */
     @PostMapping("/register")
     public AccountTransfer register(@RequestBody RegisterRequest registerForm) {
-        return mapper.map(authService.register(registerForm), AccountTransfer.class);
+        return mapper.map(stageTimer.record("account.register", StageTimer.NONE,
+                () -> authService.register(registerForm)), AccountTransfer.class);
+    }
+
+    /**
+     * This type of request allows an admin or a partner to register several accounts at once.
+     * Throws {@link AuthenticationException} in the absence of a token.
+     *
+     * @param registerForms forms with required fields
+     * @param request       information for HTTP servlets
+     * @return results of registration in the order of the passed forms
+     */
+    @PostMapping("/register/batch")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_PARTNER')")
+    public List<RegisterResultTransfer> registerAll(@RequestBody List<RegisterRequest> registerForms,
+                                                    HttpServletRequest request) {
+        Map<String, Object> tokenInfo = securityService.checkAndGetInfo(request);
+        return authService.registerAll(registerForms, tokenInfo).stream()
+                .map(result -> new RegisterResultTransfer(result.getStatus().value(), result.getMessage(),
+                        result.getAccount() != null ? mapper.map(result.getAccount(), AccountTransfer.class) : null))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This type of request allows to check whether the username and the email are free to register.
+     *
+     * @param username name of account or null
+     * @param email    account email or null
+     * @return the object of class AvailabilityTransfer
+     */
+    @GetMapping("/available")
+    public AvailabilityTransfer getAvailability(@RequestParam(required = false) String username,
+                                                @RequestParam(required = false) String email) {
+        return new AvailabilityTransfer(
+                username != null ? authService.isUsernameAvailable(username) : null,
+                email != null ? authService.isEmailAvailable(email) : null);
     }
 
     /**
@@ -82,22 +124,62 @@ public class AuthController implements AuthApi {
         if (grantType.equals("refresh_token")) {
             parameters.put("refresh_token", refreshToken);
         }
-        ResponseEntity<OAuth2AccessToken> jwt = tokenEndpoint.postAccessToken(principal, parameters);
-        authService.saveAndCheckRefreshToken(jwt, refreshToken);
+        String grantTag = StageTimer.grantType(grantType);
+        ResponseEntity<OAuth2AccessToken> jwt = stageTimer.record("token.grant", grantTag,
+                () -> tokenEndpoint.postAccessToken(principal, parameters));
+        stageTimer.run("token.refresh-store", grantTag, () -> authService.saveAndCheckRefreshToken(jwt, refreshToken));
         return jwt;
     }
 
     /**
      * This type of request allows to get the account by user token.
+     * In case if the caller opts in for claims, the account is built from the token without a database lookup
+     * and contains only the fields present among the claims of the token.
      * Throws {@link AuthenticationException} in the absence of a token.
      *
      * @param request information for HTTP servlets
+     * @param claims  build the account from the claims of the token only
      * @return the object of class AccountTransfer
      */
     @GetMapping(value = "/current")
     @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_USER')")
-    public AccountTransfer getCurrentUser(HttpServletRequest request) {
-        return mapper.map(authService.getCurrentUser(
-                (String) securityService.checkAndGetInfo(request).get("userId")), AccountTransfer.class);
+    public AccountTransfer getCurrentUser(HttpServletRequest request,
+                                          @RequestParam(required = false, defaultValue = "false") boolean claims) {
+        Map<String, Object> tokenInfo = securityService.checkAndGetInfo(request);
+        Account account = stageTimer.record(claims ? "account.current-claims" : "account.current", StageTimer.NONE,
+                () -> claims
+                        ? authService.getCurrentUserFromClaims(tokenInfo)
+                        : authService.getCurrentUser((String) tokenInfo.get("userId")));
+        return mapper.map(account, AccountTransfer.class);
+    }
+
+    /**
+     * This type of request allows to log out of the current device, the access token is revoked
+     * and, in case if the refresh token is passed, all refresh tokens of the device are removed.
+     * Throws {@link AuthenticationException} in the absence of a token.
+     *
+     * @param request      information for HTTP servlets
+     * @param refreshToken "" or refresh token of the device
+     */
+    @PostMapping("/logout")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_USER')")
+    public void logout(HttpServletRequest request,
+                       @RequestParam(name = "refreshToken", defaultValue = "") String refreshToken) {
+        String token = securityService.checkToken(request);
+        securityService.getTokenInfo(token);
+        authService.logout(token, refreshToken);
+    }
+
+    /**
+     * This type of request allows to log out of all devices, all access and refresh tokens of the account
+     * issued until now are revoked.
+     * Throws {@link AuthenticationException} in the absence of a token.
+     *
+     * @param request information for HTTP servlets
+     */
+    @PostMapping("/logout/all")
+    @PreAuthorize("hasRole('ROLE_ADMIN') or hasRole('ROLE_USER')")
+    public void logoutAll(HttpServletRequest request) {
+        authService.logoutAll((String) securityService.checkAndGetInfo(request).get("userId"));
     }
 }
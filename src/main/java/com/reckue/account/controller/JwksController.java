@@ -0,0 +1,46 @@
+package com.reckue.account.controller;
+
+import com.reckue.account.config.JwtKeyRing;
+import com.reckue.account.controller.api.JwksApi;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class JwksController represents a REST-Controller publishing the public keys which verify the tokens,
+ * so resource servers are able to verify the tokens without calling this service.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@RestController
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@ConditionalOnProperty(name = "security.token.algorithm", havingValue = "RS256")
+public class JwksController implements JwksApi {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${security.token.keys.jwks-max-age:300}")
+    private long maxAge;
+
+    /**
+     * This type of request allows to get the public keys of the ring in the JWK set format.
+     * The response carries an ETag, a request with the matching If-None-Match header gets 304 without a body.
+     *
+     * @return the key set
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getKeys() {
+        JwtKeyRing.JwkSet jwkSet = keyRing.getJwkSet();
+        return ResponseEntity.ok()
+                .eTag(jwkSet.getEtag())
+                .cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic())
+                .body(jwkSet.getJson());
+    }
+}
@@ -1,7 +1,10 @@
 package com.reckue.account.controller.api;
 
+import com.reckue.account.transfer.AccountSliceTransfer;
 import com.reckue.account.transfer.AccountTransfer;
 import io.swagger.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
@@ -23,6 +26,22 @@ public interface AccountApi {
             @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
     List<AccountTransfer> getAll(int limit, int offset, String sort, boolean desc);
 
+    @ApiOperation(value = "View a slice of available accounts using a continuation token",
+            response = AccountSliceTransfer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Slice of accounts successfully retrieved"),
+            @ApiResponse(code = 400, message = "You need to change the parameters of your request"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    AccountSliceTransfer getSlice(int limit, String cursor, String sort, boolean desc);
+
+    @ApiOperation(value = "Export accounts as newline-delimited JSON", response = AccountTransfer.class,
+            produces = "application/x-ndjson")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Accounts successfully exported"),
+            @ApiResponse(code = 400, message = "You need to change the parameters of your request"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    ResponseEntity<StreamingResponseBody> export(long updated);
+
     @ApiOperation(value = "Get account by id", response = AccountTransfer.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The account successfully found"),
@@ -37,6 +56,20 @@ public interface AccountApi {
             @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
     AccountTransfer getByUsername(String username);
 
+    @ApiOperation(value = "Get accounts by a list of ids", response = AccountTransfer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The found accounts, unknown ids are skipped"),
+            @ApiResponse(code = 400, message = "You need to change the parameters of your request"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    List<AccountTransfer> getAllById(List<String> ids);
+
+    @ApiOperation(value = "Get accounts by a list of usernames", response = AccountTransfer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The found accounts, unknown usernames are skipped"),
+            @ApiResponse(code = 400, message = "You need to change the parameters of your request"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    List<AccountTransfer> getAllByUsername(List<String> usernames);
+
     @ApiOperation(value = "Delete account by id", authorizations = {@Authorization(value = "Bearer token")})
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "The account successfully deleted"),
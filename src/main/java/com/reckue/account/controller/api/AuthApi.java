@@ -1,7 +1,9 @@
 package com.reckue.account.controller.api;
 
 import com.reckue.account.transfer.AccountTransfer;
+import com.reckue.account.transfer.AvailabilityTransfer;
 import com.reckue.account.transfer.RegisterRequest;
+import com.reckue.account.transfer.RegisterResultTransfer;
 import io.swagger.annotations.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import java.security.Principal;
+import java.util.List;
 
 /**
  * Interface AuthApi allows to post annotations for swagger.
@@ -29,6 +32,23 @@ public interface AuthApi {
     @ResponseStatus(code = HttpStatus.CREATED)
     AccountTransfer register(RegisterRequest registerForm);
 
+    @ApiOperation(value = "Registration of several accounts", response = RegisterResultTransfer.class,
+            authorizations = {@Authorization(value = "Bearer token")})
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Results of registration in the order of the forms"),
+            @ApiResponse(code = 400, message = "You need to change the incoming parameters"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 403, message = "Forbidden"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible"),
+            @ApiResponse(code = 503, message = "Too many concurrent password operations")})
+    List<RegisterResultTransfer> registerAll(List<RegisterRequest> registerForms, HttpServletRequest request);
+
+    @ApiOperation(value = "Availability of a username and an email", response = AvailabilityTransfer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The request has completed"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    AvailabilityTransfer getAvailability(String username, String email);
+
     @ApiOperation(value = "Authorization", response = OAuth2AccessToken.class)
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "JWT has created"),
@@ -48,5 +68,23 @@ public interface AuthApi {
             @ApiResponse(code = 401, message = "Unauthorized"),
             @ApiResponse(code = 404, message = "The account by this username is not found"),
             @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
-    AccountTransfer getCurrentUser(HttpServletRequest request);
+    AccountTransfer getCurrentUser(HttpServletRequest request, boolean claims);
+
+    @ApiOperation(value = "Log out of the current device", authorizations = {@Authorization(value = "Bearer token")})
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "The token has been revoked"),
+            @ApiResponse(code = 400, message = "You need to change the incoming parameters"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    void logout(HttpServletRequest request, String refreshToken);
+
+    @ApiOperation(value = "Log out of all devices", authorizations = {@Authorization(value = "Bearer token")})
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "All tokens of the account have been revoked"),
+            @ApiResponse(code = 400, message = "You need to change the incoming parameters"),
+            @ApiResponse(code = 401, message = "Unauthorized"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    @ResponseStatus(code = HttpStatus.NO_CONTENT)
+    void logoutAll(HttpServletRequest request);
 }
@@ -0,0 +1,21 @@
+package com.reckue.account.controller.api;
+
+import io.swagger.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Interface JwksApi allows to post annotations for swagger.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Api(tags = "/.well-known")
+@SuppressWarnings("unused")
+public interface JwksApi {
+
+    @ApiOperation(value = "Public keys verifying the tokens in the JWK set format")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The key set"),
+            @ApiResponse(code = 304, message = "The key set matching the ETag has not changed"),
+            @ApiResponse(code = 500, message = "Access to the resource you tried to obtain is not possible")})
+    ResponseEntity<String> getKeys();
+}
@@ -0,0 +1,33 @@
+package com.reckue.account.exception;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Class TooManyRequestsException is responsible for throwing
+ * exception when the client exceeds the allowed rate of requests.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Getter
+@Setter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final String message;
+    private final HttpStatus httpStatus;
+    private final long retryAfter;
+
+    /**
+     * Constructor with passed parameters as an information about the exception.
+     *
+     * @param message    information about exception
+     * @param httpStatus the description about Http status code
+     * @param retryAfter seconds to wait before the next request
+     */
+    public TooManyRequestsException(String message, HttpStatus httpStatus, long retryAfter) {
+        this.message = message;
+        this.httpStatus = httpStatus;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -2,6 +2,7 @@ package com.reckue.account.handler;
 
 import com.reckue.account.exception.*;
 import com.reckue.account.transfer.ErrorTransfer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -74,4 +75,30 @@ public class CustomExceptionHandler {
         return new ResponseEntity<>(new ErrorTransfer(e.getMessage(), HttpStatus.BAD_REQUEST,
                 HttpStatus.BAD_REQUEST.value()), HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * This method is used to handle a ServiceUnavailableException.
+     *
+     * @param e ServiceUnavailableException
+     * @return an exception response in the form of an object ErrorTransfer class
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return new ResponseEntity<>(new ErrorTransfer(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE,
+                HttpStatus.SERVICE_UNAVAILABLE.value()), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * This method is used to handle a TooManyRequestsException.
+     *
+     * @param e TooManyRequestsException
+     * @return an exception response in the form of an object ErrorTransfer class
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequestsException(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()))
+                .body(new ErrorTransfer(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS,
+                        HttpStatus.TOO_MANY_REQUESTS.value()));
+    }
 }
@@ -0,0 +1,50 @@
+package com.reckue.account.limiter;
+
+import com.reckue.account.exception.TooManyRequestsException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Class LoginRateLimitFilter checks the requests for a token against {@link LoginRateLimiter}.
+ * It runs before the security filters, so a rejected attempt doesn't even verify the client secret.
+ * Refresh grants carry a single-use token instead of a password, so they aren't counted at all.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String grantType = request.getParameter("grant_type");
+        if ("refresh_token".equals(grantType)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String username = "password".equals(grantType) ? request.getParameter("username") : null;
+        try {
+            loginRateLimiter.check(username, request.getRemoteAddr());
+        } catch (TooManyRequestsException e) {
+            // the response is written by CustomExceptionHandler as for any other exception
+            handlerExceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,73 @@
+package com.reckue.account.limiter;
+
+import com.reckue.account.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Class LoginRateLimiter limits the login attempts per username and per client address,
+ * so that guessing passwords costs no database lookup and no password hashing once the limit is reached.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final RateLimiterStore store;
+    private final int usernameLimit;
+    private final long usernameWindow;
+    private final int addressLimit;
+    private final long addressWindow;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedByAddress;
+
+    public LoginRateLimiter(RateLimiterStore store,
+                            MeterRegistry meterRegistry,
+                            @Value("${security.login.rate-limit.username.limit:10}") int usernameLimit,
+                            @Value("${security.login.rate-limit.username.window:60000}") long usernameWindow,
+                            @Value("${security.login.rate-limit.address.limit:100}") int addressLimit,
+                            @Value("${security.login.rate-limit.address.window:60000}") long addressWindow) {
+        if (usernameWindow < StripedRateLimiterStore.MIN_WINDOW || addressWindow < StripedRateLimiterStore.MIN_WINDOW) {
+            throw new IllegalArgumentException("The windows of the login rate limits must be at least "
+                    + StripedRateLimiterStore.MIN_WINDOW + " ms");
+        }
+        this.store = store;
+        this.usernameLimit = usernameLimit;
+        this.usernameWindow = usernameWindow;
+        this.addressLimit = addressLimit;
+        this.addressWindow = addressWindow;
+        this.rejectedByUsername = meterRegistry.counter("account.login.rejected", "limit", "username");
+        this.rejectedByAddress = meterRegistry.counter("account.login.rejected", "limit", "address");
+    }
+
+    /**
+     * This method is used to record a login attempt.
+     * Throws {@link TooManyRequestsException} in case if the attempts of the address or of the username
+     * within the window exceed the limit.
+     *
+     * @param username username of the account or null in case if the attempt doesn't carry one
+     * @param address  address of the client
+     */
+    public void check(String username, String address) {
+        if (address != null && store.increment("address:" + address, addressWindow) > addressLimit) {
+            rejectedByAddress.increment();
+            throw new TooManyRequestsException("Too many login attempts from this address",
+                    HttpStatus.TOO_MANY_REQUESTS, seconds(addressWindow));
+        }
+        if (username != null && store.increment("username:" + username.toLowerCase(Locale.ROOT),
+                usernameWindow) > usernameLimit) {
+            rejectedByUsername.increment();
+            throw new TooManyRequestsException("Too many login attempts for this username",
+                    HttpStatus.TOO_MANY_REQUESTS, seconds(usernameWindow));
+        }
+    }
+
+    private static long seconds(long window) {
+        return Math.max(1, window / 1000);
+    }
+}
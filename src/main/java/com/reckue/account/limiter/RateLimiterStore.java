@@ -0,0 +1,20 @@
+package com.reckue.account.limiter;
+
+/**
+ * Interface RateLimiterStore represents the state of the rate limiters: counters of attempts within sliding windows.
+ * The default implementation keeps the counters in memory of one instance, an implementation
+ * backed by a shared store makes the limits apply across all instances.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public interface RateLimiterStore {
+
+    /**
+     * This method is used to record an attempt.
+     *
+     * @param key    the limited key, for example a username
+     * @param window length of the sliding window in milliseconds
+     * @return estimated quantity of attempts within the window ending now, including this one
+     */
+    long increment(String key, long window);
+}
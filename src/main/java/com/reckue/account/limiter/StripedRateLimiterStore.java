@@ -0,0 +1,128 @@
+package com.reckue.account.limiter;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class StripedRateLimiterStore keeps the counters of attempts in a fixed number of stripes, so the memory
+ * doesn't grow with the number of keys and no lock is ever taken.
+ * Every key is counted in one stripe of each of two rows chosen by independent hashes, and the smaller
+ * of both counts is used, so that keys sharing a stripe rarely inflate each other's counts.
+ * The hashes are seeded randomly by every instance, so that colliding keys can't be prepared in advance.
+ * A stripe holds the counts of the current and the previous fixed window, the sliding window
+ * is approximated by weighting the previous count by the part of it still inside the sliding window.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class StripedRateLimiterStore implements RateLimiterStore {
+
+    /**
+     * The shortest supported window in milliseconds, the number of a shorter window doesn't fit
+     * next to the count in a stripe.
+     */
+    public static final long MIN_WINDOW = 2;
+
+    private static final int ROWS = 2;
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int stripes;
+    private final int[] seeds = new int[ROWS];
+    private final Map<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with passed number of stripes in each row, rounded up to a power of two.
+     *
+     * @param stripes number of stripes
+     */
+    public StripedRateLimiterStore(int stripes) {
+        this.stripes = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        SecureRandom random = new SecureRandom();
+        for (int row = 0; row < ROWS; row++) {
+            seeds[row] = random.nextInt();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Throws {@link IllegalArgumentException} in case if the window is shorter than {@link #MIN_WINDOW}.
+     */
+    @Override
+    public long increment(String key, long window) {
+        // every window length has its own stripes, so that windows of different length don't reset each other
+        AtomicLongArray slots = counters.computeIfAbsent(window, this::newSlots);
+        long now = System.currentTimeMillis();
+        long index = now / window;
+        double previousWeight = 1 - (double) (now % window) / window;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            int stripe = murmur(key, seeds[row]) & (stripes - 1);
+            int base = (row * stripes + stripe) * 2;
+            long current = add(slots, base + (int) (index & 1), index);
+            long previous = count(slots, base + (int) ((index - 1) & 1), index - 1);
+            estimate = Math.min(estimate, current + (long) (previous * previousWeight));
+        }
+        return estimate;
+    }
+
+    private AtomicLongArray newSlots(long window) {
+        if (window < MIN_WINDOW) {
+            throw new IllegalArgumentException("The window must be at least " + MIN_WINDOW + " ms, got " + window);
+        }
+        return new AtomicLongArray(ROWS * stripes * 2);
+    }
+
+    private static long add(AtomicLongArray slots, int slot, long index) {
+        while (true) {
+            long value = slots.get(slot);
+            long next;
+            if (value >>> COUNT_BITS != index) {
+                // the slot holds a window which has already passed, start counting anew
+                next = index << COUNT_BITS | 1;
+            } else if ((value & COUNT_MASK) == COUNT_MASK) {
+                next = value;
+            } else {
+                next = value + 1;
+            }
+            if (next == value || slots.compareAndSet(slot, value, next)) {
+                return next & COUNT_MASK;
+            }
+        }
+    }
+
+    private static long count(AtomicLongArray slots, int slot, long index) {
+        long value = slots.get(slot);
+        return value >>> COUNT_BITS == index ? value & COUNT_MASK : 0;
+    }
+
+    /**
+     * This method is used to hash the UTF-16 code units of the key by the 32-bit MurmurHash3.
+     *
+     * @param key  the limited key
+     * @param seed seed of the row
+     * @return hash of the key
+     */
+    private static int murmur(String key, int seed) {
+        int h = seed;
+        int length = key.length();
+        for (int i = 1; i < length; i += 2) {
+            h ^= mixK(key.charAt(i - 1) | key.charAt(i) << 16);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xE6546B64;
+        }
+        if ((length & 1) == 1) {
+            h ^= mixK(key.charAt(length - 1));
+        }
+        h ^= 2 * length;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ h >>> 16;
+    }
+
+    private static int mixK(int k) {
+        return Integer.rotateLeft(k * 0xCC9E2D51, 15) * 0x1B873593;
+    }
+}
@@ -0,0 +1,140 @@
+package com.reckue.account.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class StageTimer records the latency of the stages of a request, such as checking the password
+ * or signing the token, in the timer "account.stage" with a percentile histogram.
+ * The tags are limited to the stage, the grant type, the outcome and the exception class,
+ * so the number of timers stays small. Recording can be switched off at runtime.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+public class StageTimer {
+
+    /**
+     * Value of the tags which don't apply to a stage.
+     */
+    public static final String NONE = "none";
+
+    private static final String METRIC = "account.stage";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Getter
+    @Setter
+    private volatile boolean enabled;
+
+    public StageTimer(MeterRegistry meterRegistry,
+                      @Value("${account.metrics.stages.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * This method is used to run the stage and record its latency.
+     *
+     * @param stage     name of the stage
+     * @param grantType grant type of the token request or {@link #NONE}
+     * @param action    the stage
+     * @param <T>       type of the result
+     * @param <E>       type of the checked exception thrown by the stage
+     * @return the result of the stage
+     * @throws E the exception thrown by the stage
+     */
+    public <T, E extends Exception> T record(String stage, String grantType, Stage<T, E> action) throws E {
+        if (!enabled) {
+            return action.run();
+        }
+        long start = System.nanoTime();
+        String exception = NONE;
+        try {
+            return action.run();
+        } catch (Exception | Error e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(stage, grantType, exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * This method is used to run the stage without a result and record its latency.
+     *
+     * @param stage     name of the stage
+     * @param grantType grant type of the token request or {@link #NONE}
+     * @param action    the stage
+     * @param <E>       type of the checked exception thrown by the stage
+     * @throws E the exception thrown by the stage
+     */
+    public <E extends Exception> void run(String stage, String grantType, Action<E> action) throws E {
+        record(stage, grantType, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * This method is used to turn the grant type of a request into a tag value,
+     * unknown grant types share one value, so that requests can't create new timers.
+     *
+     * @param grantType grant type of the request or null
+     * @return value of the tag
+     */
+    public static String grantType(String grantType) {
+        if (grantType == null) {
+            return NONE;
+        }
+        return grantType.equals("password") || grantType.equals("refresh_token") ? grantType : "other";
+    }
+
+    private Timer timer(String stage, String grantType, String exception) {
+        String key = stage + '|' + grantType + '|' + exception;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder(METRIC)
+                    .description("Latency of the stages of requests")
+                    .tag("stage", stage)
+                    .tag("grant_type", grantType)
+                    .tag("outcome", exception.equals(NONE) ? "success" : "error")
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    /**
+     * Interface Stage represents a stage with a result.
+     *
+     * @param <T> type of the result
+     * @param <E> type of the checked exception
+     */
+    @FunctionalInterface
+    public interface Stage<T, E extends Exception> {
+
+        T run() throws E;
+    }
+
+    /**
+     * Interface Action represents a stage without a result.
+     *
+     * @param <E> type of the checked exception
+     */
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+
+        void run() throws E;
+    }
+}
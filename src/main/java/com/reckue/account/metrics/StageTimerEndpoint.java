@@ -0,0 +1,57 @@
+package com.reckue.account.metrics;
+
+import com.reckue.account.exception.AccessDeniedException;
+import com.reckue.account.service.SecurityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Class StageTimerEndpoint represents the actuator endpoint "/actuator/stagetimers"
+ * which shows and switches the recording of the stage timers at runtime.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "stagetimers")
+public class StageTimerEndpoint {
+
+    private final StageTimer stageTimer;
+    private final SecurityService securityService;
+
+    /**
+     * This method is used to show whether the stage timers record.
+     *
+     * @return the state of the stage timers
+     */
+    @ReadOperation
+    public Map<String, Boolean> state() {
+        return Map.of("enabled", stageTimer.isEnabled());
+    }
+
+    /**
+     * This method is used to switch the stage timers on or off.
+     * The actuator isn't covered by the checks of the controllers, so the token of an admin is passed in the body.
+     * Throws {@link AccessDeniedException} in case if the token doesn't belong to an admin.
+     *
+     * @param enabled true to record the stages
+     * @param token   access token of an admin
+     * @return the new state of the stage timers
+     */
+    @WriteOperation
+    public Map<String, Boolean> switchTimers(boolean enabled, String token) {
+        Object authorities = securityService.getTokenInfo(token).get("authorities");
+        if (!(authorities instanceof Collection) || !((Collection<?>) authorities).contains("ROLE_ADMIN")) {
+            throw new AccessDeniedException("The operation forbidden", HttpStatus.FORBIDDEN);
+        }
+        stageTimer.setEnabled(enabled);
+        return state();
+    }
+}
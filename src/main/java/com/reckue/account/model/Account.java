@@ -3,6 +3,8 @@ package com.reckue.account.model;
 import com.reckue.account.util.helper.RandomHelper;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -35,7 +37,10 @@ public class Account implements UserDetails {
     private String email;
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.ALL})
+    // roles are loaded on demand, reads which need them use an entity graph or loadRoles of AccountRepository
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "role_accounts", joinColumns = {
             @JoinColumn(name = "accounts_id", referencedColumnName = "id")},
             inverseJoinColumns = {@JoinColumn(name = "role_id", referencedColumnName = "id")})
@@ -48,15 +53,38 @@ public class Account implements UserDetails {
     private long updated;
 
     public Account() {
-        Set<Role> set = new HashSet<>();
-        set.add(new Role("ROLE_USER"));
         this.setId(RandomHelper.generate());
         this.status = Status.ACTIVE;
-        this.roles = set;
+        // roles are shared entities handed out by RoleRegistry
+        this.roles = new HashSet<>();
         this.created = new Timestamp(System.currentTimeMillis()).getTime();
         this.updated = new Timestamp(System.currentTimeMillis()).getTime();
     }
 
+    /**
+     * Constructor of a read-only view of the account without credentials, used by projection queries.
+     * The view isn't managed by the persistence context, its roles are added by the caller.
+     *
+     * @param id        the object identifier
+     * @param status    status of the account
+     * @param username  name of account
+     * @param email     account email
+     * @param lastVisit date of the last visit
+     * @param created   date of creation
+     * @param updated   date of the last change
+     */
+    public Account(String id, Status status, String username, String email,
+                   long lastVisit, long created, long updated) {
+        this.id = id;
+        this.status = status;
+        this.username = username;
+        this.email = email;
+        this.roles = new HashSet<>();
+        this.lastVisit = lastVisit;
+        this.created = created;
+        this.updated = updated;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         Set<GrantedAuthority> authorities = new HashSet<>();
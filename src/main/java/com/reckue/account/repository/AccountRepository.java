@@ -1,9 +1,17 @@
 package com.reckue.account.repository;
 
 import com.reckue.account.model.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -13,7 +21,13 @@ import java.util.Optional;
  */
 @Repository
 @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-public interface AccountRepository extends JpaRepository<Account, String> {
+public interface AccountRepository extends JpaRepository<Account, String>, AccountRepositoryCustom {
+
+    /**
+     * Constructor expression selecting the read-only view of the account, without credentials.
+     */
+    String ACCOUNT_VIEW = "select new com.reckue.account.model.Account("
+            + "a.id, a.status, a.username, a.email, a.lastVisit, a.created, a.updated) from Account a";
 
     /**
      * This method is used to check if the account with that username already exists in the database.
@@ -25,11 +39,14 @@ public interface AccountRepository extends JpaRepository<Account, String> {
 
     /**
      * This method is used to check if the account with that email already exists in the database.
+     * Emails are compared ignoring case, as the unique index on emails does.
      *
      * @param email account email
      * @return true or false
      */
-    boolean existsByEmail(String email);
+    @Query("select case when count(a) > 0 then true else false end from Account a "
+            + "where lower(a.email) = lower(:email)")
+    boolean existsByEmail(@Param("email") String email);
 
     /**
      * This method is used to find the account by username in the database.
@@ -39,10 +56,93 @@ public interface AccountRepository extends JpaRepository<Account, String> {
      */
     Optional<Account> findByUsername(String username);
 
+    /**
+     * This method is used to find the account with its roles by username in a single query.
+     *
+     * @param username name of account
+     * @return the object of class Account with that username
+     */
+    @EntityGraph(attributePaths = "roles")
+    Optional<Account> findWithRolesByUsername(String username);
+
+    /**
+     * This method is used to find the read-only view of the account by id.
+     *
+     * @param id the object identifier
+     * @return the view of the account without roles
+     */
+    @Query(ACCOUNT_VIEW + " where a.id = :id")
+    Optional<Account> findViewById(@Param("id") String id);
+
+    /**
+     * This method is used to find the read-only view of the account by username.
+     *
+     * @param username name of account
+     * @return the view of the account without roles
+     */
+    @Query(ACCOUNT_VIEW + " where a.username = :username")
+    Optional<Account> findViewByUsername(@Param("username") String username);
+
+    /**
+     * This method is used to find the page of read-only views of the accounts.
+     *
+     * @param pageable page and sorting
+     * @return page of the views of the accounts without roles
+     */
+    @Query(value = ACCOUNT_VIEW, countQuery = "select count(a) from Account a")
+    Page<Account> findAllViews(Pageable pageable);
+
+    /**
+     * This method is used to find the read-only views of the accounts by identifiers.
+     *
+     * @param ids the object identifiers
+     * @return list of the views of the accounts without roles
+     */
+    @Query(ACCOUNT_VIEW + " where a.id in :ids")
+    List<Account> findViewsByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * This method is used to find the read-only views of the accounts by usernames.
+     *
+     * @param usernames names of accounts
+     * @return list of the views of the accounts without roles
+     */
+    @Query(ACCOUNT_VIEW + " where a.username in :usernames")
+    List<Account> findViewsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * This method is used to find which of the passed usernames are already taken.
+     *
+     * @param usernames names of accounts
+     * @return list of taken usernames
+     */
+    @Query("select a.username from Account a where a.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * This method is used to find which of the passed lowercase emails are already taken.
+     *
+     * @param emails lowercase account emails
+     * @return list of taken emails in lowercase
+     */
+    @Query("select lower(a.email) from Account a where lower(a.email) in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     /**
      * This method is used to delete the account by username in the database.
      *
      * @param username name of account
      */
     void deleteByUsername(String username);
+
+    /**
+     * This method is used to replace the password hash of the account in the database.
+     *
+     * @param id       the object identifier
+     * @param password new password hash
+     * @return quantity of updated accounts
+     */
+    @Modifying
+    @Query("update Account a set a.password = :password where a.id = :id")
+    int updatePassword(@Param("id") String id, @Param("password") String password);
 }
@@ -0,0 +1,58 @@
+package com.reckue.account.repository;
+
+import com.reckue.account.model.Account;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface AccountRepositoryCustom contains queries of AccountRepository
+ * which can't be derived from method names.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * This method is used to find the slice of read-only views of the accounts which follow the passed position
+     * in the order of the sort key and the identifier, without counting all the accounts.
+     * Roles of the views aren't loaded.
+     *
+     * @param sort    name of the indexed sort key
+     * @param desc    sorting descending or ascending
+     * @param lastKey value of the sort key of the last account of the previous slice or null
+     * @param lastId  identifier of the last account of the previous slice or null
+     * @param limit   quantity of objects
+     * @return slice of objects of class Account
+     */
+    Slice<Account> findAllAfter(String sort, boolean desc, String lastKey, String lastId, int limit);
+
+    /**
+     * This method is used to insert the account with the links to its roles in a single statement.
+     * Nothing is inserted in case if the account conflicts with an existing one
+     * by identifier, username or email.
+     *
+     * @param account object of class Account with shared roles
+     * @return true if the account is inserted or false in case of a conflict
+     */
+    boolean insertIfAbsent(Account account);
+
+    /**
+     * This method is used to add the roles to the read-only views of the accounts in a single query.
+     *
+     * @param accounts views of the accounts
+     * @param <T>      type of the collection
+     * @return the passed views
+     */
+    <T extends Collection<Account>> T loadRoles(T accounts);
+
+    /**
+     * This method is used to insert new accounts with the links to their roles
+     * through the JDBC batching of Hibernate, in batches of hibernate.jdbc.batch_size statements.
+     * Must be called within a transaction, a conflict with an existing account fails the whole call.
+     *
+     * @param accounts new objects of class Account with shared roles
+     */
+    void persistAll(List<Account> accounts);
+}
@@ -0,0 +1,124 @@
+package com.reckue.account.repository;
+
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class AccountRepositoryCustomImpl represents realization of AccountRepositoryCustom.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@RequiredArgsConstructor
+@SuppressWarnings("unused")
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    private static final String INSERT_ACCOUNT = "WITH inserted AS ("
+            + "INSERT INTO accounts (id, status, username, email, password, last_visit, created, updated) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING RETURNING id), "
+            + "linked AS (INSERT INTO role_accounts (accounts_id, role_id) "
+            + "SELECT inserted.id, roles.id FROM inserted JOIN roles ON roles.id IN (%s) RETURNING accounts_id) "
+            + "SELECT count(*) FROM inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Account> findAllAfter(String sort, boolean desc, String lastKey, String lastId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Account> query = builder.createQuery(Account.class);
+        Root<Account> root = query.from(Account.class);
+        Path<String> id = root.get("id");
+        Path<String> key = root.get(sort);
+        boolean byId = "id".equals(sort);
+
+        if (lastId != null) {
+            Predicate afterId = desc ? builder.lessThan(id, lastId) : builder.greaterThan(id, lastId);
+            if (byId) {
+                query.where(afterId);
+            } else {
+                Predicate afterKey = desc ? builder.lessThan(key, lastKey) : builder.greaterThan(key, lastKey);
+                query.where(builder.or(afterKey, builder.and(builder.equal(key, lastKey), afterId)));
+            }
+        }
+        if (byId) {
+            query.orderBy(desc ? builder.desc(id) : builder.asc(id));
+        } else {
+            query.orderBy(desc ? builder.desc(key) : builder.asc(key), desc ? builder.desc(id) : builder.asc(id));
+        }
+
+        // one extra row tells whether the next slice exists
+        query.select(builder.construct(Account.class, id, root.get("status"), root.get("username"),
+                root.get("email"), root.get("lastVisit"), root.get("created"), root.get("updated")));
+        List<Account> content = entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = content.size() > limit;
+        Sort sorted = desc ? Sort.by(sort).descending() : Sort.by(sort).ascending();
+        return new SliceImpl<>(hasNext ? content.subList(0, limit) : content, PageRequest.of(0, limit, sorted), hasNext);
+    }
+
+    @Override
+    public <T extends Collection<Account>> T loadRoles(T accounts) {
+        if (accounts.isEmpty()) {
+            return accounts;
+        }
+        Map<String, Account> byId = new HashMap<>();
+        accounts.forEach(account -> byId.put(account.getId(), account));
+        entityManager.createQuery("select a.id, r.id, r.name from Account a join a.roles r where a.id in :ids",
+                Object[].class)
+                .setParameter("ids", byId.keySet())
+                .getResultList()
+                .forEach(row -> byId.get((String) row[0]).getRoles().add(new Role((Long) row[1], (String) row[2])));
+        return accounts;
+    }
+
+    @Override
+    public boolean insertIfAbsent(Account account) {
+        List<Object> args = new ArrayList<>();
+        addColumns(args, account);
+        List<String> roleParameters = new ArrayList<>();
+        for (Role role : account.getRoles()) {
+            roleParameters.add("?");
+            args.add(role.getId());
+        }
+        // an account without roles links nothing
+        String roles = roleParameters.isEmpty() ? "NULL" : String.join(", ", roleParameters);
+        Long inserted = jdbcTemplate.queryForObject(String.format(INSERT_ACCOUNT, roles), Long.class, args.toArray());
+        return inserted != null && inserted > 0;
+    }
+
+    @Override
+    public void persistAll(List<Account> accounts) {
+        accounts.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static void addColumns(List<Object> args, Account account) {
+        Collections.addAll(args, account.getId(), account.getStatus().ordinal(), account.getUsername(),
+                account.getEmail(), account.getPassword(), account.getLastVisit(), account.getCreated(),
+                account.getUpdated());
+    }
+}
@@ -0,0 +1,24 @@
+package com.reckue.account.repository;
+
+import com.reckue.account.model.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Interface RoleRepository configures the connection with PostgreSQL for roles.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Repository
+public interface RoleRepository extends JpaRepository<Role, Long> {
+
+    /**
+     * This method is used to find the role by name in the database.
+     *
+     * @param name name of role
+     * @return the object of class Role with that name
+     */
+    Optional<Role> findByName(String name);
+}
@@ -0,0 +1,137 @@
+package com.reckue.account.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.reckue.account.model.Status;
+import com.reckue.account.transfer.AccountTransfer;
+import com.reckue.account.transfer.RoleTransfer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+
+/**
+ * Class AccountExportService represents service which streams the accounts
+ * as newline-delimited JSON with constant memory.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Service
+public class AccountExportService {
+
+    private static final String SELECT_ACCOUNTS = "SELECT a.id, a.username, a.email, a.status, a.created, "
+            + "a.updated, a.last_visit, r.name AS role FROM accounts a "
+            + "LEFT JOIN role_accounts ra ON ra.accounts_id = a.id "
+            + "LEFT JOIN roles r ON r.id = ra.role_id "
+            + "WHERE a.updated >= ? ORDER BY a.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public AccountExportService(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${account.export.fetch-size:500}") int fetchSize) {
+        // a fetch size makes the PostgreSQL driver read the rows with a cursor inside a transaction
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper.writerFor(AccountTransfer.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * This method is used to write all the accounts updated since the passed date
+     * to the output stream, one JSON object of class AccountTransfer per line.
+     *
+     * @param updatedSince the earliest date of update of exported accounts, 0 for all the accounts
+     * @param out          the output stream
+     */
+    public void export(long updatedSince, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        generator.setRootValueSeparator(null);
+        AccountRowHandler handler = new AccountRowHandler(generator);
+        try {
+            transactionTemplate.execute(status -> {
+                jdbcTemplate.query(SELECT_ACCOUNTS, handler, updatedSince);
+                return null;
+            });
+            handler.writeCurrent();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+        log.debug("Exported {} accounts updated since {}", handler.count, updatedSince);
+    }
+
+    /**
+     * Class AccountRowHandler folds the rows of an account and its roles, which come one after another,
+     * into a single object of class AccountTransfer and writes it as soon as the next account starts.
+     */
+    private final class AccountRowHandler implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private AccountTransfer current;
+        private long count;
+
+        private AccountRowHandler(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String id = rs.getString("id");
+            if (current == null || !current.getId().equals(id)) {
+                writeCurrent();
+                current = new AccountTransfer();
+                current.setId(id);
+                current.setUsername(rs.getString("username"));
+                current.setEmail(rs.getString("email"));
+                current.setStatus(Status.values()[rs.getInt("status")].name());
+                current.setCreated(rs.getLong("created"));
+                current.setUpdated(rs.getLong("updated"));
+                current.setLastVisit(rs.getLong("last_visit"));
+                current.setRoles(new HashSet<>());
+            }
+            String role = rs.getString("role");
+            if (role != null) {
+                RoleTransfer roleTransfer = new RoleTransfer();
+                roleTransfer.setName(role);
+                current.getRoles().add(roleTransfer);
+            }
+        }
+
+        private void writeCurrent() {
+            if (current == null) {
+                return;
+            }
+            try {
+                writer.writeValue(generator, current);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            current = null;
+            count++;
+        }
+    }
+}
@@ -1,27 +1,35 @@
 package com.reckue.account.service;
 
+import com.reckue.account.cache.AccountBloomFilter;
+import com.reckue.account.cache.AccountCache;
+import com.reckue.account.config.ReplicaRoutingDataSource;
 import com.reckue.account.exception.AccessDeniedException;
 import com.reckue.account.exception.AlreadyExistsException;
+import com.reckue.account.exception.InvalidDataException;
 import com.reckue.account.exception.NotFoundException;
 import com.reckue.account.model.Account;
-import com.reckue.account.model.Role;
 import com.reckue.account.model.Status;
 import com.reckue.account.repository.AccountRepository;
+import com.reckue.account.util.helper.CursorHelper;
 import com.reckue.account.util.helper.RandomHelper;
 import com.reckue.account.util.helper.TimestampHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Class AccountService represents service with operations related to the account and the database.
@@ -35,8 +43,24 @@ import java.util.Optional;
 @SuppressWarnings("unused")
 public class AccountService {
 
+    /**
+     * Sort keys allowed for cursor pagination, each of them must be backed by an index.
+     */
+    private static final Map<String, Function<Account, String>> KEYSET_SORTS = Map.of(
+            "id", Account::getId,
+            "username", Account::getUsername);
+
+    private final AccountCache accountCache;
+    private final AccountBloomFilter accountBloomFilter;
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+
+    @Value("${account.batch.max-size:1000}")
+    private int batchMaxSize;
+
+    @Value("${account.page.max-size:1000}")
+    private int pageMaxSize;
 
     /**
      * This method is used to find all the users in the database that meet the requirements.
@@ -48,48 +72,142 @@ public class AccountService {
      * @return list of given quantity of objects of class Account with a given offset
      * sorted by the selected parameter for sorting in descending or ascending order
      */
+    @Transactional(readOnly = true)
     public List<Account> findAll(int limit, int offset, String sort, boolean desc) {
         Sort sorted = desc ? Sort.by(sort).descending() : Sort.by(sort).ascending();
-        return accountRepository.findAll(PageRequest.of(offset, limit, sorted)).getContent();
+        return accountRepository.loadRoles(
+                accountRepository.findAllViews(PageRequest.of(offset, limit, sorted)).getContent());
+    }
+
+    /**
+     * This method is used to find the slice of accounts which follow the passed continuation token.
+     * Unlike {@link #findAll(int, int, String, boolean)} it neither counts the accounts
+     * nor skips the rows of the previous pages.
+     * Throws {@link InvalidDataException} in case if the sort key isn't indexed, the token is invalid
+     * or the limit exceeds the maximum slice size.
+     *
+     * @param limit  quantity of objects
+     * @param cursor continuation token returned with the previous slice or null for the first slice
+     * @param sort   parameter for sorting
+     * @param desc   sorting descending or ascending
+     * @return slice of objects of class Account
+     */
+    @Transactional(readOnly = true)
+    public Slice<Account> findAllAfter(int limit, String cursor, String sort, boolean desc) {
+        if (!KEYSET_SORTS.containsKey(sort)) {
+            throw new InvalidDataException("Cursor pagination supports sorting only by " + KEYSET_SORTS.keySet(),
+                    HttpStatus.BAD_REQUEST);
+        }
+        if (limit <= 0 || limit > pageMaxSize) {
+            throw new InvalidDataException("Limit must be between 1 and " + pageMaxSize, HttpStatus.BAD_REQUEST);
+        }
+        if (cursor == null || cursor.isEmpty()) {
+            return withRoles(accountRepository.findAllAfter(sort, desc, null, null, limit));
+        }
+        String[] position;
+        try {
+            position = CursorHelper.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+        if (!position[0].equals(sort) || !position[1].equals(desc ? "desc" : "asc")) {
+            throw new InvalidDataException("The cursor was issued for another sorting", HttpStatus.BAD_REQUEST);
+        }
+        return withRoles(accountRepository.findAllAfter(sort, desc, position[2], position[3], limit));
     }
 
     /**
-     * This method is used to find the account by id in the database.
+     * This method is used to get the continuation token of the slice following the passed one.
+     *
+     * @param slice slice of objects of class Account
+     * @param sort  parameter for sorting
+     * @param desc  sorting descending or ascending
+     * @return continuation token or null in case if the slice is the last one
+     */
+    public String getCursor(Slice<Account> slice, String sort, boolean desc) {
+        if (!slice.hasNext()) {
+            return null;
+        }
+        Account last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        return CursorHelper.encode(sort, desc, KEYSET_SORTS.get(sort).apply(last), last.getId());
+    }
+
+    /**
+     * This method is used to find the account by id in the cache or in the database.
+     * The account is loaded from the primary, as the cached state outlives the lag of the replicas.
      * Throws {@link NotFoundException} in case if such account isn't contained in database.
      *
      * @param id the object identifier
      * @return the object of class Account
      */
+    @Transactional(readOnly = true)
     public Account findById(String id) {
-        return accountRepository.findById(id).orElseThrow(
+        return accountCache.findById(id, key -> ReplicaRoutingDataSource.onPrimary(
+                () -> accountRepository.findViewById(key).map(this::withRoles))).orElseThrow(
                 () -> new NotFoundException("The account by id '" + id + "' not found", HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * This method is used to find the accounts by identifiers in a single query.
+     * Throws {@link InvalidDataException} in case if too many identifiers are passed.
+     *
+     * @param ids the object identifiers
+     * @return list of found objects of class Account, unknown identifiers are skipped
+     */
+    @Transactional(readOnly = true)
+    public List<Account> findAllById(List<String> ids) {
+        checkBatchSize(ids.size());
+        return ids.isEmpty() ? List.of() : accountRepository.loadRoles(accountRepository.findViewsByIdIn(ids));
+    }
+
+    /**
+     * This method is used to find the accounts by usernames in a single query.
+     * Throws {@link InvalidDataException} in case if too many usernames are passed.
+     *
+     * @param usernames names of accounts
+     * @return list of found objects of class Account, unknown usernames are skipped
+     */
+    @Transactional(readOnly = true)
+    public List<Account> findAllByUsername(List<String> usernames) {
+        checkBatchSize(usernames.size());
+        return usernames.isEmpty()
+                ? List.of()
+                : accountRepository.loadRoles(accountRepository.findViewsByUsernameIn(usernames));
+    }
+
     /**
      * This method is used to create an object of class Account.
+     * The password is hashed without a transaction, so that no connection is held meanwhile.
      * Throws {@link AlreadyExistsException} in case if account with such username or email already exists.
      *
      * @param accountModel object of class Account
      * @return the object of class Account
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Account create(Account accountModel) {
-        if (!accountRepository.existsByUsername(accountModel.getUsername())
-                && !accountRepository.existsByEmail(accountModel.getEmail())) {
-            Account account = Account.builder()
-                    .id(RandomHelper.generate(accountModel.getUsername()))
-                    .username(accountModel.getUsername())
-                    .email(accountModel.getEmail())
-                    .password(passwordEncoder.encode(accountModel.getPassword()))
-                    .roles(new HashSet<>())
-                    .status(Status.ACTIVE)
-                    .created(TimestampHelper.getCurrentTimestamp())
-                    .updated(TimestampHelper.getCurrentTimestamp())
-                    .build();
-            account.getRoles().add(new Role("ROLE_USER"));
-            return accountRepository.save(account);
-        } else {
+        if (accountBloomFilter.mightContainUsername(accountModel.getUsername())
+                && accountRepository.existsByUsername(accountModel.getUsername())
+                || accountBloomFilter.mightContainEmail(accountModel.getEmail())
+                && accountRepository.existsByEmail(accountModel.getEmail())) {
+            throw new AlreadyExistsException("Username or Email already exists", HttpStatus.NOT_MODIFIED);
+        }
+        Account account = Account.builder()
+                .id(RandomHelper.generate(accountModel.getUsername()))
+                .username(accountModel.getUsername())
+                .email(accountModel.getEmail())
+                .password(passwordEncoder.encode(accountModel.getPassword()))
+                .roles(new HashSet<>())
+                .status(Status.ACTIVE)
+                .created(TimestampHelper.getCurrentTimestamp())
+                .updated(TimestampHelper.getCurrentTimestamp())
+                .build();
+        account.getRoles().add(roleRegistry.get("ROLE_USER"));
+        accountCache.evict(account);
+        accountBloomFilter.add(account.getUsername(), account.getEmail());
+        if (!accountRepository.insertIfAbsent(account)) {
             throw new AlreadyExistsException("Username or Email already exists", HttpStatus.NOT_MODIFIED);
         }
+        return account;
     }
 
     /**
@@ -109,6 +227,7 @@ public class AccountService {
         if (account.isPresent()) {
             String userId = account.get().getId();
             if (tokenInfo.get("userId").equals(userId) || tokenInfo.get("authorities").equals("ROLE_ADMIN")) {
+                accountCache.evict(account.get());
                 accountRepository.deleteByUsername(username);
             } else {
                 throw new AccessDeniedException("The operation forbidden", HttpStatus.FORBIDDEN);
@@ -133,6 +252,7 @@ public class AccountService {
         if (account.isPresent()) {
             String userId = account.get().getId();
             if (tokenInfo.get("userId").equals(userId) || tokenInfo.get("authorities").equals("ROLE_ADMIN")) {
+                accountCache.evict(account.get());
                 accountRepository.deleteById(id);
             } else {
                 throw new AccessDeniedException("The operation forbidden", HttpStatus.FORBIDDEN);
@@ -141,15 +261,36 @@ public class AccountService {
     }
 
     /**
-     * This method is used to find the account by username in the database.
+     * This method is used to find the account by username in the cache or in the database.
+     * The account is loaded from the primary, as the cached state outlives the lag of the replicas.
      * Throws {@link NotFoundException} in case if such account isn't contained in database.
      *
      * @param username the object name
      * @return the object of class User
      */
+    @Transactional(readOnly = true)
     public Account findByUsername(String username) {
-        return accountRepository.findByUsername(username)
+        return accountCache.findByUsername(username,
+                key -> ReplicaRoutingDataSource.onPrimary(
+                        () -> accountRepository.findViewByUsername(key).map(this::withRoles)))
                 .orElseThrow(() -> new NotFoundException("The account by username '" + username + "' not found",
                         HttpStatus.NOT_FOUND));
     }
+
+    private Account withRoles(Account account) {
+        accountRepository.loadRoles(List.of(account));
+        return account;
+    }
+
+    private Slice<Account> withRoles(Slice<Account> slice) {
+        accountRepository.loadRoles(slice.getContent());
+        return slice;
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxSize) {
+            throw new InvalidDataException("No more than " + batchMaxSize + " accounts can be requested at once",
+                    HttpStatus.BAD_REQUEST);
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package com.reckue.account.service;
 
+import com.reckue.account.cache.AccountBloomFilter;
+import com.reckue.account.cache.AccountCache;
+import com.reckue.account.config.BoundedPasswordEncoder;
+import com.reckue.account.exception.AccessDeniedException;
 import com.reckue.account.exception.AuthenticationException;
 import com.reckue.account.exception.InvalidDataException;
 import com.reckue.account.exception.NotFoundException;
@@ -8,19 +12,34 @@ import com.reckue.account.model.Role;
 import com.reckue.account.model.Status;
 import com.reckue.account.repository.AccountRepository;
 import com.reckue.account.transfer.RegisterRequest;
+import com.reckue.account.util.validator.RegisterRequestValidator;
 import com.reckue.account.util.helper.RandomHelper;
 import com.reckue.account.util.helper.TimestampHelper;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Class AuthService represents service with operations related to authentication and authorization.
@@ -32,59 +51,189 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class AuthService {
 
+    private static final Set<String> BATCH_ROLES = Set.of("ROLE_ADMIN", "ROLE_PARTNER");
+
+    private final AccountCache accountCache;
+    private final AccountBloomFilter accountBloomFilter;
     private final AccountRepository accountRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final RoleRegistry roleRegistry;
+    private final LastVisitRecorder lastVisitRecorder;
+    private final RefreshTokenStore refreshTokenStore;
+    private final TokenRevocationList revocationList;
+    private final TokenStore tokenStore;
+    private final RegisterRequestValidator registerRequestValidator;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${account.batch.register-max-size:100}")
+    private int batchMaxSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
 
     /**
      * This method is used to register a new account.
-     * Throws {@link AuthenticationException} in case if user with such username already exists.
+     * Throws {@link AuthenticationException} in case if user with such username or email already exists.
+     * Throws {@link InvalidDataException} in case if any field of the form is invalid.
      *
      * @param registerForm with required fields
      */
-    @Transactional
     public Account register(RegisterRequest registerForm) {
         // todo: send a mail about registration to user email
-        //checking that the account exists in the database
-        if (!accountRepository.existsByUsername(registerForm.getUsername())) {
+        // check all the fields of the form
+        registerRequestValidator.validate(registerForm);
+        if (!isUsernameAvailable(registerForm.getUsername()) || !isEmailAvailable(registerForm.getEmail())) {
+            throw new AuthenticationException("Username or email already exists", HttpStatus.BAD_REQUEST);
+        }
+
+        // create instance of account model and fill it
+        Account account = Account.builder()
+                .id(RandomHelper.generate(registerForm.getUsername()))
+                .username(registerForm.getUsername())
+                .email(registerForm.getEmail())
+                .password(passwordEncoder.encode(registerForm.getPassword()))
+                .roles(new HashSet<>())
+                .status(Status.ACTIVE)
+                .created(TimestampHelper.getCurrentTimestamp())
+                .updated(TimestampHelper.getCurrentTimestamp())
+                .lastVisit(TimestampHelper.getCurrentTimestamp())
+                .build();
+
+        // add roles to instance of account model
+        account.getRoles().add(roleRegistry.get("ROLE_USER"));
+
+        // drop possibly cached state of the account and save it in database,
+        // the unique indexes detect the existing username or email within the insert itself
+        accountCache.evict(account);
+        accountBloomFilter.add(account.getUsername(), account.getEmail());
+        if (!accountRepository.insertIfAbsent(account)) {
+            throw new AuthenticationException("Username or email already exists", HttpStatus.BAD_REQUEST);
+        }
+        return account;
+    }
 
-            // check password verification
-            if (!registerForm.getPassword().matches("(.*).{6,}")) {
-                throw new InvalidDataException("Your password must contain at least 6 any symbols.",
-                        HttpStatus.BAD_REQUEST);
+    /**
+     * This method is used to register several accounts at once on behalf of an admin or a partner.
+     * Taken usernames and emails are found by two queries for the whole batch,
+     * passwords are hashed in parallel and the accounts are inserted in batches.
+     * Accounts whose username or email is taken in the meantime are reported like the others which already exist.
+     * Throws {@link AccessDeniedException} in case if the token belongs neither to an admin nor to a partner.
+     * Throws {@link InvalidDataException} in case if too many forms are passed.
+     *
+     * @param registerForms forms with required fields
+     * @param tokenInfo     additional information from a token
+     * @return results of registration in the order of the passed forms
+     */
+    public List<RegistrationResult> registerAll(List<RegisterRequest> registerForms, Map<String, Object> tokenInfo) {
+        Object authorities = tokenInfo.get("authorities");
+        if (!(authorities instanceof Collection) || Collections.disjoint((Collection<?>) authorities, BATCH_ROLES)) {
+            throw new AccessDeniedException("The operation forbidden", HttpStatus.FORBIDDEN);
+        }
+        if (registerForms.size() > batchMaxSize) {
+            throw new InvalidDataException("No more than " + batchMaxSize + " accounts can be registered at once",
+                    HttpStatus.BAD_REQUEST);
+        }
+        RegistrationResult[] results = new RegistrationResult[registerForms.size()];
+
+        // check the forms and the duplicates inside the batch
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < registerForms.size(); i++) {
+            RegisterRequest registerForm = registerForms.get(i);
+            try {
+                registerRequestValidator.validate(registerForm);
+            } catch (InvalidDataException e) {
+                results[i] = new RegistrationResult(e.getHttpStatus(), e.getMessage(), null);
+                continue;
+            }
+            boolean newUsername = usernames.add(registerForm.getUsername());
+            boolean newEmail = emails.add(registerForm.getEmail().toLowerCase(Locale.ROOT));
+            if (newUsername && newEmail) {
+                accepted.add(i);
+            } else {
+                results[i] = alreadyExists();
             }
-            // check email verification
-            if (!registerForm.getEmail().matches("\\b[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,4}\\b")) {
-                throw new InvalidDataException("Please correct, it isn't an email. Use lowercase letters.",
-                        HttpStatus.BAD_REQUEST);
+        }
+
+        // check the usernames and emails taken by existing accounts
+        Set<String> takenUsernames = new HashSet<>(usernames.isEmpty()
+                ? List.of() : accountRepository.findExistingUsernames(usernames));
+        Set<String> takenEmails = new HashSet<>(emails.isEmpty()
+                ? List.of() : accountRepository.findExistingEmails(emails));
+        List<Integer> registered = new ArrayList<>(accepted.size());
+        List<String> passwords = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            RegisterRequest registerForm = registerForms.get(i);
+            if (takenUsernames.contains(registerForm.getUsername())
+                    || takenEmails.contains(registerForm.getEmail().toLowerCase(Locale.ROOT))) {
+                results[i] = alreadyExists();
+            } else {
+                registered.add(i);
+                passwords.add(registerForm.getPassword());
             }
+        }
 
-            // create instance of account model and fill it
+        // hash the passwords in parallel and insert the accounts in batches
+        List<String> hashes = passwordEncoder.encodeAll(passwords);
+        Role role = roleRegistry.get("ROLE_USER");
+        List<Account> accounts = new ArrayList<>(registered.size());
+        for (int j = 0; j < registered.size(); j++) {
+            RegisterRequest registerForm = registerForms.get(registered.get(j));
             Account account = Account.builder()
                     .id(RandomHelper.generate(registerForm.getUsername()))
                     .username(registerForm.getUsername())
                     .email(registerForm.getEmail())
-                    .password(passwordEncoder.encode(registerForm.getPassword()))
-                    .roles(new HashSet<>())
+                    .password(hashes.get(j))
+                    .roles(new HashSet<>(Set.of(role)))
                     .status(Status.ACTIVE)
                     .created(TimestampHelper.getCurrentTimestamp())
                     .updated(TimestampHelper.getCurrentTimestamp())
                     .lastVisit(TimestampHelper.getCurrentTimestamp())
                     .build();
+            accountCache.evict(account);
+            accountBloomFilter.add(account.getUsername(), account.getEmail());
+            accounts.add(account);
+        }
+        Set<String> inserted = persistAll(accounts);
+        for (int j = 0; j < registered.size(); j++) {
+            Account account = accounts.get(j);
+            results[registered.get(j)] = inserted.contains(account.getId())
+                    ? new RegistrationResult(HttpStatus.CREATED, null, account)
+                    : alreadyExists();
+        }
+        log.debug("Registered {} of {} accounts", inserted.size(), registerForms.size());
+        return Arrays.asList(results);
+    }
 
-            // add roles to instance of account model
-            account.getRoles().add(new Role("ROLE_USER"));
-
-            // save the account in database
-            return accountRepository.save(account);
+    /**
+     * This method is used to check whether the username is free to register.
+     * Usernames which definitely don't exist are answered without a query.
+     *
+     * @param username name of account
+     * @return true in case if there is no account with that username
+     */
+    @Transactional(readOnly = true)
+    public boolean isUsernameAvailable(String username) {
+        return !accountBloomFilter.mightContainUsername(username) || !accountRepository.existsByUsername(username);
+    }
 
-        } else {
-            throw new AuthenticationException("Username already exists", HttpStatus.BAD_REQUEST);
-        }
+    /**
+     * This method is used to check whether the email is free to register, ignoring case.
+     * Emails which definitely don't exist are answered without a query.
+     *
+     * @param email account email
+     * @return true in case if there is no account with that email
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmailAvailable(String email) {
+        return !accountBloomFilter.mightContainEmail(email) || !accountRepository.existsByEmail(email);
     }
 
     /**
-     * This method is used to save refresh token of the account in database
+     * This method is used to save refresh token of the account in the refresh token store
      * and in case of grandType "refresh_token" is used to check the validity of the refresh token.
+     * The checked refresh token is used up, the new one continues its family.
      * Throws {@link NotFoundException} in case if such account isn't contained in database.
      * Throws {@link AuthenticationException} in case if user enters invalid refresh token.
      *
@@ -93,17 +242,54 @@ public class AuthService {
      */
     @Transactional
     public void saveAndCheckRefreshToken(ResponseEntity<OAuth2AccessToken> responseEntity, String refreshToken) {
-        String userId = (String) Objects.requireNonNull(responseEntity.getBody()).getAdditionalInformation().get("userId");
-        Account account = accountRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("The account by id [" + userId + "] not found",
-                        HttpStatus.NOT_FOUND));
-        if (!refreshToken.isEmpty() && !account.getRefreshToken().equals(refreshToken)) {
-            throw new AuthenticationException("Invalid refresh token", HttpStatus.UNAUTHORIZED);
+        OAuth2AccessToken accessToken = Objects.requireNonNull(responseEntity.getBody());
+        String userId = (String) accessToken.getAdditionalInformation().get("userId");
+        String family = null;
+        if (!refreshToken.isEmpty()) {
+            family = refreshTokenStore.consume(userId, refreshToken);
+            if (family == null) {
+                throw new AuthenticationException("Invalid refresh token", HttpStatus.UNAUTHORIZED);
+            }
         }
 
         // update last visit date
-        account.setLastVisit(TimestampHelper.getCurrentTimestamp());
-        account.setRefreshToken(responseEntity.getBody().getRefreshToken().toString());
+        lastVisitRecorder.record(userId, TimestampHelper.getCurrentTimestamp());
+        try {
+            refreshTokenStore.save(userId, family, accessToken.getRefreshToken());
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("The account by id [" + userId + "] not found", HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * This method is used to revoke the access token of the user and, in case if the refresh token is passed,
+     * all refresh tokens of the same device.
+     *
+     * @param token        verified access token
+     * @param refreshToken "" or refresh token of the same device
+     */
+    @Transactional
+    public void logout(String token, String refreshToken) {
+        OAuth2AccessToken accessToken = tokenStore.readAccessToken(token);
+        String userId = (String) accessToken.getAdditionalInformation().get("userId");
+        long expires = accessToken.getExpiration() != null
+                ? accessToken.getExpiration().getTime()
+                : TimestampHelper.getCurrentTimestamp() + revocationList.getAccountTtl();
+        revocationList.revoke((String) accessToken.getAdditionalInformation().get("jti"), userId, expires);
+        if (!refreshToken.isEmpty()) {
+            refreshTokenStore.deleteFamily(userId, refreshToken);
+        }
+    }
+
+    /**
+     * This method is used to revoke all access and refresh tokens of the user on every device.
+     *
+     * @param userId token user id
+     */
+    @Transactional
+    public void logoutAll(String userId) {
+        revocationList.revokeAll(userId);
+        refreshTokenStore.deleteAll(userId);
     }
 
     /**
@@ -113,13 +299,92 @@ public class AuthService {
      * @param userId token user id
      * @return the object of class AccountTransfer
      */
+    @Transactional(readOnly = true)
     public Account getCurrentUser(String userId) {
-        Account account = accountRepository.findById(userId)
+        Account account = accountRepository.findViewById(userId)
+                .map(view -> accountRepository.loadRoles(List.of(view)).get(0))
                 .orElseThrow(() -> new NotFoundException("The account by id [" + userId + "] not found",
                         HttpStatus.NOT_FOUND));
         // update last visit date
-        account.setLastVisit(TimestampHelper.getCurrentTimestamp());
+        lastVisitRecorder.record(userId, TimestampHelper.getCurrentTimestamp());
+        return account;
+
+    }
+
+    /**
+     * This method is used to get the account by user token without a database lookup,
+     * the account is built from the claims of the already verified token.
+     * Fields which aren't among the claims of the token stay empty.
+     *
+     * @param tokenInfo additional information from a token
+     * @return the object of class Account filled from the claims
+     */
+    public Account getCurrentUserFromClaims(Map<String, Object> tokenInfo) {
+        String userId = (String) tokenInfo.get("userId");
+        Set<Role> roles = new HashSet<>();
+        Object authorities = tokenInfo.get("authorities");
+        if (authorities instanceof Collection) {
+            ((Collection<?>) authorities).forEach(authority -> roles.add(new Role(String.valueOf(authority))));
+        }
+        Object status = tokenInfo.get("status");
+        Account account = Account.builder()
+                .id(userId)
+                .username((String) tokenInfo.get("username"))
+                .email((String) tokenInfo.get("email"))
+                .status(status != null ? Status.valueOf((String) status) : null)
+                .created(toLong(tokenInfo.get("created")))
+                .updated(toLong(tokenInfo.get("updated")))
+                .roles(roles)
+                .build();
+        // update last visit date
+        lastVisitRecorder.record(userId, TimestampHelper.getCurrentTimestamp());
         return account;
+    }
+
+    private Set<String> persistAll(List<Account> accounts) {
+        // hashing takes long, so only the inserts run in transactions, one per batch
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < accounts.size(); from += jdbcBatchSize) {
+            List<Account> batch = accounts.subList(from, Math.min(from + jdbcBatchSize, accounts.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> accountRepository.persistAll(batch));
+                batch.forEach(account -> inserted.add(account.getId()));
+            } catch (DataIntegrityViolationException e) {
+                // an account of the batch has been registered in the meantime, the rest are inserted one by one
+                for (Account account : batch) {
+                    // the failed persist has bound the roles to its closed session
+                    account.setRoles(new HashSet<>(account.getRoles()));
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                accountRepository.persistAll(List.of(account)));
+                        inserted.add(account.getId());
+                    } catch (DataIntegrityViolationException conflict) {
+                        log.debug("Account {} already exists", account.getUsername());
+                    }
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static long toLong(Object claim) {
+        return claim instanceof Number ? ((Number) claim).longValue() : 0;
+    }
+
+    private RegistrationResult alreadyExists() {
+        return new RegistrationResult(HttpStatus.BAD_REQUEST, "Username or email already exists", null);
+    }
+
+    /**
+     * Class RegistrationResult represents the result of registration of a single account from a batch.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class RegistrationResult {
 
+        private final HttpStatus status;
+        private final String message;
+        private final Account account;
     }
 }
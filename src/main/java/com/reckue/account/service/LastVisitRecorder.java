@@ -0,0 +1,136 @@
+package com.reckue.account.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class LastVisitRecorder collects last visit dates of the accounts in memory
+ * and writes them to the database periodically in one batch.
+ * Only the latest date of each account is kept until the next flush.
+ * Visits are never written on request threads, so the write can't join the transaction of the caller.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+public class LastVisitRecorder {
+
+    private static final String UPDATE_LAST_VISIT =
+            "UPDATE accounts SET last_visit = ? WHERE id = ? AND last_visit < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final int maxPending;
+    private final OverflowPolicy overflowPolicy;
+    private final Counter dropped;
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public LastVisitRecorder(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             TaskScheduler taskScheduler,
+                             MeterRegistry meterRegistry,
+                             @Value("${account.last-visit.max-pending:10000}") int maxPending,
+                             @Value("${account.last-visit.overflow-policy:FLUSH}") OverflowPolicy overflowPolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the batch is written on its own connection and is committed or rolled back as a whole
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.taskScheduler = taskScheduler;
+        this.maxPending = maxPending;
+        this.overflowPolicy = overflowPolicy;
+        this.dropped = meterRegistry.counter("account.last-visit.dropped");
+        meterRegistry.gaugeMapSize("account.last-visit.pending", Tags.empty(), pending);
+    }
+
+    /**
+     * This method is used to record a visit of the account.
+     * In case if the queue is full, the visit is dropped or an early flush is requested
+     * from the background depending on the overflow policy. Until the flush takes the queue,
+     * it may grow up to twice its size, further visits are dropped.
+     *
+     * @param accountId the account identifier
+     * @param timestamp date of the visit
+     */
+    public void record(String accountId, long timestamp) {
+        if (pending.size() >= maxPending && !pending.containsKey(accountId)) {
+            if (overflowPolicy == OverflowPolicy.DROP || pending.size() >= 2 * maxPending) {
+                dropped.increment();
+                return;
+            }
+            if (flushRequested.compareAndSet(false, true)) {
+                taskScheduler.schedule(this::flush, new Date());
+            }
+        }
+        pending.merge(accountId, timestamp, Math::max);
+    }
+
+    /**
+     * This method is used to write all recorded visits to the database in one batch.
+     * Visits are written in the order of account identifiers to avoid lock cycles
+     * between concurrent flushes of several instances.
+     * Visits of a batch which isn't committed are returned to the queue.
+     */
+    @Scheduled(fixedDelayString = "${account.last-visit.flush-interval:5000}")
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Long> visits = new TreeMap<>();
+        for (String accountId : pending.keySet()) {
+            Long timestamp = pending.remove(accountId);
+            if (timestamp != null) {
+                visits.put(accountId, timestamp);
+            }
+        }
+        List<Object[]> batch = new ArrayList<>(visits.size());
+        visits.forEach((accountId, timestamp) -> batch.add(new Object[]{timestamp, accountId, timestamp}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_LAST_VISIT, batch));
+            log.debug("Flushed last visit dates of {} accounts", batch.size());
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Failed to flush last visit dates of {} accounts", batch.size(), e);
+            visits.forEach((accountId, timestamp) -> pending.merge(accountId, timestamp, Math::max));
+        }
+    }
+
+    /**
+     * This method is used to write the remaining visits before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Enum OverflowPolicy provides an enumeration of actions applied when the queue of visits is full.
+     */
+    public enum OverflowPolicy {
+
+        DROP,
+        FLUSH
+    }
+}
@@ -0,0 +1,146 @@
+package com.reckue.account.service;
+
+import com.reckue.account.util.helper.DigestHelper;
+import com.reckue.account.util.helper.RandomHelper;
+import com.reckue.account.util.helper.TimestampHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Class RefreshTokenStore keeps the issued refresh tokens apart from the accounts.
+ * Only digests of the tokens are stored, every login of a device starts a new family of tokens
+ * and every refresh replaces the used token by a new one of the same family.
+ * Expired tokens are purged in small batches in the background.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final String INSERT_TOKEN =
+            "INSERT INTO refresh_tokens (id, account_id, family, expires, created) VALUES (?, ?, ?, ?, ?)";
+    private static final String CONSUME_TOKEN =
+            "DELETE FROM refresh_tokens WHERE id = ? AND account_id = ? AND expires > ? RETURNING family";
+    private static final String CONSUME_LEGACY_TOKEN =
+            "UPDATE accounts SET refresh_token = NULL WHERE id = ? AND refresh_token = ?";
+    private static final String DELETE_FAMILY =
+            "DELETE FROM refresh_tokens WHERE account_id = ? AND family IN (SELECT family FROM refresh_tokens WHERE id = ?)";
+    private static final String DELETE_ACCOUNT_TOKENS =
+            "DELETE FROM refresh_tokens WHERE account_id = ?";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM refresh_tokens WHERE id IN (SELECT id FROM refresh_tokens WHERE expires <= ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long defaultTtl;
+    private final int sweepBatchSize;
+    private final boolean legacyFallback;
+    private final Counter swept;
+
+    public RefreshTokenStore(JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${security.token.refresh.expires-in:2592000000}") long defaultTtl,
+                             @Value("${security.token.refresh.sweep-batch-size:1000}") int sweepBatchSize,
+                             @Value("${security.token.refresh.legacy-fallback:false}") boolean legacyFallback) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultTtl = defaultTtl;
+        this.sweepBatchSize = sweepBatchSize;
+        this.legacyFallback = legacyFallback;
+        this.swept = meterRegistry.counter("account.refresh-tokens.swept");
+    }
+
+    /**
+     * This method is used to save the issued refresh token.
+     *
+     * @param accountId the account identifier
+     * @param family    the family of the replaced token or null to start a new family
+     * @param token     the issued refresh token
+     * @return the family of the saved token
+     */
+    public String save(String accountId, String family, OAuth2RefreshToken token) {
+        long now = TimestampHelper.getCurrentTimestamp();
+        long expires = token instanceof ExpiringOAuth2RefreshToken
+                && ((ExpiringOAuth2RefreshToken) token).getExpiration() != null
+                ? ((ExpiringOAuth2RefreshToken) token).getExpiration().getTime()
+                : now + defaultTtl;
+        String tokenFamily = family != null ? family : RandomHelper.generate();
+        jdbcTemplate.update(INSERT_TOKEN, DigestHelper.sha256(token.getValue()), accountId, tokenFamily, expires, now);
+        return tokenFamily;
+    }
+
+    /**
+     * This method is used to use up the passed refresh token of the account.
+     * The token is removed in the same statement which checks it, so it can be used only once.
+     * With the legacy fallback, a token missing from the store is looked up in the column of the account,
+     * where the previous version saves it, and starts a new family.
+     *
+     * @param accountId the account identifier
+     * @param token     the refresh token
+     * @return the family of the token or null in case if the token is unknown, already used or expired
+     */
+    public String consume(String accountId, String token) {
+        List<String> families = jdbcTemplate.query(CONSUME_TOKEN, (rs, rowNum) -> rs.getString(1),
+                DigestHelper.sha256(token), accountId, TimestampHelper.getCurrentTimestamp());
+        if (!families.isEmpty()) {
+            return families.get(0);
+        }
+        // the wide row of the account is written only for a token which the store doesn't know
+        if (legacyFallback && jdbcTemplate.update(CONSUME_LEGACY_TOKEN, accountId, token) > 0) {
+            return RandomHelper.generate();
+        }
+        return null;
+    }
+
+    /**
+     * This method is used to remove all the tokens of one device of the account.
+     *
+     * @param accountId the account identifier
+     * @param token     any refresh token of the device
+     * @return quantity of removed tokens
+     */
+    public int deleteFamily(String accountId, String token) {
+        return jdbcTemplate.update(DELETE_FAMILY, accountId, DigestHelper.sha256(token));
+    }
+
+    /**
+     * This method is used to remove all the tokens of the account.
+     *
+     * @param accountId the account identifier
+     * @return quantity of removed tokens
+     */
+    public int deleteAll(String accountId) {
+        return jdbcTemplate.update(DELETE_ACCOUNT_TOKENS, accountId);
+    }
+
+    /**
+     * This method is used to purge the expired tokens.
+     * Every batch is a separate short statement, so the sweep never holds many row locks at once.
+     */
+    @Scheduled(fixedDelayString = "${security.token.refresh.sweep-interval:600000}")
+    public void sweep() {
+        long now = TimestampHelper.getCurrentTimestamp();
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED, now, sweepBatchSize);
+                total += deleted;
+                swept.increment(deleted);
+            } while (deleted == sweepBatchSize);
+        } catch (DataAccessException e) {
+            log.warn("Failed to purge expired refresh tokens after {} were purged", total, e);
+            return;
+        }
+        log.debug("Purged {} expired refresh tokens", total);
+    }
+}
@@ -0,0 +1,66 @@
+package com.reckue.account.service;
+
+import com.reckue.account.model.Role;
+import com.reckue.account.repository.RoleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class RoleRegistry represents a dictionary of roles which hands out
+ * the single shared entity of every role instead of creating a new one for each account.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+
+    public RoleRegistry(RoleRepository roleRepository, PlatformTransactionManager transactionManager) {
+        this.roleRepository = roleRepository;
+        // a created role must survive the rollback of the transaction which asked for it
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * This method is used to load all the roles from the database once at startup.
+     */
+    @PostConstruct
+    public void init() {
+        roleRepository.findAll().forEach(role -> roles.put(role.getName(), role));
+        log.debug("Loaded roles {}", roles.keySet());
+    }
+
+    /**
+     * This method is used to get the shared entity of the role by name.
+     * The role is created in the database in case if it doesn't exist yet.
+     *
+     * @param name name of role
+     * @return the object of class Role
+     */
+    public Role get(String name) {
+        return roles.computeIfAbsent(name, this::loadOrCreate);
+    }
+
+    private Role loadOrCreate(String name) {
+        try {
+            return transactionTemplate.execute(status -> roleRepository.findByName(name)
+                    .orElseGet(() -> roleRepository.save(new Role(name))));
+        } catch (DataIntegrityViolationException e) {
+            // the role has been created concurrently by another instance
+            return roleRepository.findByName(name).orElseThrow(() -> e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.reckue.account.service;
+
+import com.reckue.account.util.helper.TimestampHelper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class TokenRevocationList keeps the revoked access tokens in memory, so that checking a token
+ * never queries the database. Revocations are stored in the database and every instance
+ * reads the new ones periodically. Entries are dropped once the revoked tokens would have expired anyway.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final String INSERT_REVOCATION =
+            "INSERT INTO token_revocations (jti, account_id, issued_before, expires, created) VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_REVOCATIONS =
+            "SELECT jti, account_id, issued_before, expires, created FROM token_revocations"
+                    + " WHERE created > ? AND expires > ?";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM token_revocations WHERE id IN (SELECT id FROM token_revocations WHERE expires <= ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    @Getter
+    private final long accountTtl;
+    private final long overlap;
+    private final int sweepBatchSize;
+
+    // token id -> expiration date of the token
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // account id -> tokens issued before this date are revoked
+    private final Map<String, Long> revokedAccounts = new ConcurrentHashMap<>();
+
+    private long lastCreated;
+
+    public TokenRevocationList(JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.token.revocation.account-ttl:43200000}") long accountTtl,
+                               @Value("${security.token.revocation.overlap:10000}") long overlap,
+                               @Value("${security.token.revocation.sweep-batch-size:1000}") int sweepBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountTtl = accountTtl;
+        this.overlap = overlap;
+        this.sweepBatchSize = sweepBatchSize;
+        meterRegistry.gaugeMapSize("account.revocations.tokens", Tags.empty(), revokedTokens);
+        meterRegistry.gaugeMapSize("account.revocations.accounts", Tags.empty(), revokedAccounts);
+    }
+
+    @PostConstruct
+    protected void init() {
+        refresh();
+    }
+
+    /**
+     * This method is used to check whether the token was revoked.
+     * Tokens without the date of issue are treated as issued before any revocation of the account.
+     *
+     * @param tokenInfo additional information from a token
+     * @return true in case if the token itself or all tokens of its account were revoked
+     */
+    public boolean isRevoked(Map<String, Object> tokenInfo) {
+        Object jti = tokenInfo.get("jti");
+        if (jti != null && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        Long issuedBefore = revokedAccounts.get(tokenInfo.get("userId"));
+        if (issuedBefore == null) {
+            return false;
+        }
+        Object issued = tokenInfo.get("issued");
+        return !(issued instanceof Number) || ((Number) issued).longValue() < issuedBefore;
+    }
+
+    /**
+     * This method is used to revoke one access token.
+     *
+     * @param jti       the token identifier
+     * @param accountId the account identifier
+     * @param expires   expiration date of the token
+     */
+    public void revoke(String jti, String accountId, long expires) {
+        jdbcTemplate.update(INSERT_REVOCATION, jti, accountId, null, expires, TimestampHelper.getCurrentTimestamp());
+        revokedTokens.put(jti, expires);
+    }
+
+    /**
+     * This method is used to revoke all access tokens of the account issued until now.
+     *
+     * @param accountId the account identifier
+     */
+    public void revokeAll(String accountId) {
+        long now = TimestampHelper.getCurrentTimestamp();
+        jdbcTemplate.update(INSERT_REVOCATION, null, accountId, now, now + accountTtl, now);
+        revokedAccounts.merge(accountId, now, Math::max);
+    }
+
+    /**
+     * This method is used to read the revocations made since the previous refresh, including ones
+     * made by other instances, and to drop the expired ones from memory.
+     * Revocations are read with an overlap, so the ones committed late or with a skewed clock aren't missed.
+     */
+    @Scheduled(fixedDelayString = "${security.token.revocation.refresh-interval:5000}",
+            initialDelayString = "${security.token.revocation.refresh-interval:5000}")
+    public synchronized void refresh() {
+        long now = TimestampHelper.getCurrentTimestamp();
+        try {
+            jdbcTemplate.query(SELECT_REVOCATIONS, rs -> {
+                String jti = rs.getString("jti");
+                long issuedBefore = rs.getLong("issued_before");
+                if (jti != null) {
+                    revokedTokens.put(jti, rs.getLong("expires"));
+                } else if (!rs.wasNull()) {
+                    revokedAccounts.merge(rs.getString("account_id"), issuedBefore, Math::max);
+                }
+                lastCreated = Math.max(lastCreated, rs.getLong("created"));
+            }, lastCreated - overlap, now);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read token revocations", e);
+        }
+        revokedTokens.values().removeIf(expires -> expires <= now);
+        revokedAccounts.values().removeIf(issuedBefore -> issuedBefore + accountTtl <= now);
+    }
+
+    /**
+     * This method is used to purge the expired revocations from the database in small batches.
+     */
+    @Scheduled(fixedDelayString = "${security.token.revocation.sweep-interval:600000}")
+    public void sweep() {
+        long now = TimestampHelper.getCurrentTimestamp();
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED, now, sweepBatchSize);
+            } while (deleted == sweepBatchSize);
+        } catch (DataAccessException e) {
+            log.warn("Failed to purge expired token revocations", e);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.reckue.account.service.impl;
 
+import com.reckue.account.cache.TokenInfoCache;
 import com.reckue.account.exception.AuthenticationException;
+import com.reckue.account.metrics.StageTimer;
 import com.reckue.account.service.SecurityService;
+import com.reckue.account.service.TokenRevocationList;
+import com.reckue.account.util.helper.RequestUserHelper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.provider.token.TokenStore;
@@ -22,21 +26,37 @@ import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 public class SecurityServiceImpl implements SecurityService {
 
     private final TokenStore tokenStore;
+    private final TokenInfoCache tokenInfoCache;
+    private final TokenRevocationList revocationList;
+    private final StageTimer stageTimer;
 
     /**
      * The method allows to get all additional information from a token.
-     * Throws {@link AuthenticationException} in case of invalid token.
+     * The token is verified only once, repeated tokens are served from the cache
+     * and checked against the revoked tokens held in memory.
+     * Throws {@link AuthenticationException} in case of invalid or revoked token.
      *
      * @param token user token
      * @return additional information from a token
      */
     @Override
     public Map<String, Object> getTokenInfo(String token) {
+        return stageTimer.record("token.check", StageTimer.NONE, () -> readTokenInfo(token));
+    }
+
+    private Map<String, Object> readTokenInfo(String token) {
+        Map<String, Object> tokenInfo;
         try {
-            return tokenStore.readAccessToken(token).getAdditionalInformation();
+            tokenInfo = tokenInfoCache.get(token, tokenStore::readAccessToken);
         } catch (Exception e) {
             throw new AuthenticationException("Invalid token", HttpStatus.UNAUTHORIZED);
         }
+        if (revocationList.isRevoked(tokenInfo)) {
+            throw new AuthenticationException("Token is revoked", HttpStatus.UNAUTHORIZED);
+        }
+        // the reads of the user follow the own writes to the primary, see ReplicaRoutingDataSource
+        RequestUserHelper.setUserId((String) tokenInfo.get("userId"));
+        return tokenInfo;
     }
 
     /**
@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -15,14 +16,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class UserDetailsServiceImplement represents a UserDetailsService realization
- * which loads user-specific data.
+ * which loads user-specific data and rehashes passwords encoded with an outdated cost.
  *
  * @author Kamila Meshcheryakova
  */
 @Service(value = "userDetailsService")
 @Transactional
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final AccountRepository accountRepository;
 
@@ -36,7 +37,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Account account = accountRepository.findByUsername(username).orElseThrow(
+        Account account = accountRepository.findWithRolesByUsername(username).orElseThrow(
                 () -> new NotFoundException(String.format("The account by username %s not found.", username),
                         HttpStatus.NOT_FOUND));
 
@@ -46,4 +47,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return account;
     }
+
+    /**
+     * This method is used to save the password rehashed with the current cost after a successful login.
+     *
+     * @param user        the account whose password was encoded with an outdated cost
+     * @param newPassword the password encoded with the current cost
+     * @return the account with the new password
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Account account = (Account) user;
+        accountRepository.updatePassword(account.getId(), newPassword);
+        account.setPassword(newPassword);
+        return account;
+    }
 }
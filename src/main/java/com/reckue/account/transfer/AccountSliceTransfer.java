@@ -0,0 +1,26 @@
+package com.reckue.account.transfer;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Class AccountSliceTransfer represents an outgoing DTO with a slice of accounts
+ * and the continuation token of the next slice.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountSliceTransfer {
+
+    @ApiModelProperty(notes = "Accounts of the slice")
+    private List<AccountTransfer> accounts;
+
+    @ApiModelProperty(notes = "Continuation token of the next slice, absent for the last slice")
+    private String cursor;
+}
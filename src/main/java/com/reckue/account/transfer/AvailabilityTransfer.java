@@ -0,0 +1,23 @@
+package com.reckue.account.transfer;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class AvailabilityTransfer represents an outgoing DTO telling whether a username and an email are free to register.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityTransfer {
+
+    @ApiModelProperty(notes = "Whether the username is free, absent in case if the username wasn't passed")
+    private Boolean username;
+
+    @ApiModelProperty(notes = "Whether the email is free, absent in case if the email wasn't passed")
+    private Boolean email;
+}
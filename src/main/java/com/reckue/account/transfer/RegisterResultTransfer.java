@@ -0,0 +1,27 @@
+package com.reckue.account.transfer;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class RegisterResultTransfer represents an outgoing DTO with the result of registration
+ * of a single account from a batch.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegisterResultTransfer {
+
+    @ApiModelProperty(notes = "Status code of the registration")
+    private Integer status;
+
+    @ApiModelProperty(notes = "Error message, absent for a registered account")
+    private String message;
+
+    @ApiModelProperty(notes = "The registered account, absent in case of an error")
+    private AccountTransfer account;
+}
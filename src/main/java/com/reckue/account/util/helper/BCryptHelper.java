@@ -0,0 +1,39 @@
+package com.reckue.account.util.helper;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Class BCryptHelper represents a calibrator of the BCrypt cost.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class BCryptHelper {
+
+    /**
+     * This method is used to pick the highest BCrypt cost which hashes a password within the passed budget.
+     * Hashing is measured once with the minimal cost, as each next cost takes twice as long.
+     *
+     * @param targetLatency budget of a single hashing in milliseconds
+     * @param minCost       the lowest allowed cost
+     * @param maxCost       the highest allowed cost
+     * @return calibrated cost between the lowest and the highest allowed costs
+     */
+    public static int calibrate(long targetLatency, int minCost, int maxCost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minCost);
+        String sample = RandomHelper.generate();
+        long best = Long.MAX_VALUE;
+        // the first round warms up the code, the fastest round is taken
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(sample);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long budget = targetLatency * 1_000_000L;
+        int cost = minCost;
+        while (cost < maxCost && best * 2 <= budget) {
+            best *= 2;
+            cost++;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,48 @@
+package com.reckue.account.util.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Class CursorHelper represents an encoder of opaque continuation tokens for cursor pagination.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class CursorHelper {
+
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * This method is used to encode the position of the last object of a slice.
+     *
+     * @param sort parameter for sorting
+     * @param desc sorting descending or ascending
+     * @param key  value of the sort key of the last object
+     * @param id   identifier of the last object
+     * @return opaque continuation token
+     */
+    public static String encode(String sort, boolean desc, String key, String id) {
+        String cursor = sort + SEPARATOR + (desc ? "desc" : "asc") + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method is used to decode the continuation token.
+     * Throws {@link IllegalArgumentException} in case if the token is malformed.
+     *
+     * @param cursor opaque continuation token
+     * @return array of sort parameter, sorting direction, value of the sort key and identifier
+     */
+    public static String[] decode(String cursor) {
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sortEnd = value.indexOf(SEPARATOR);
+        int directionEnd = value.indexOf(SEPARATOR, sortEnd + 1);
+        // the identifier never contains the separator, unlike the value of the sort key
+        int keyEnd = value.lastIndexOf(SEPARATOR);
+        if (sortEnd < 0 || directionEnd < 0 || keyEnd <= directionEnd) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new String[]{value.substring(0, sortEnd), value.substring(sortEnd + 1, directionEnd),
+                value.substring(directionEnd + 1, keyEnd), value.substring(keyEnd + 1)};
+    }
+}
@@ -0,0 +1,29 @@
+package com.reckue.account.util.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Class DigestHelper represents a generator of message digests as string.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class DigestHelper {
+
+    /**
+     * This method is used to calculate the SHA-256 digest of the passed value.
+     *
+     * @param value passed string
+     * @return url-safe base64 representation of the digest
+     */
+    public static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm is not available", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.reckue.account.util.helper;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Class RequestUserHelper represents a holder of the user of the current request.
+ * The user is kept among the request attributes, so it is dropped together with the request.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class RequestUserHelper {
+
+    private static final String USER_ID = RequestUserHelper.class.getName() + ".userId";
+
+    /**
+     * This method is used to remember the user of the current request, outside of a request it does nothing.
+     *
+     * @param userId token user id
+     */
+    public static void setUserId(String userId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(USER_ID, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * This method is used to get the user of the current request.
+     *
+     * @return token user id or null in case if the user is unknown or there is no request
+     */
+    public static String getUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? (String) attributes.getAttribute(USER_ID, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+}
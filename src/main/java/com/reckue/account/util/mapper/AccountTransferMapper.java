@@ -0,0 +1,90 @@
+package com.reckue.account.util.mapper;
+
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Role;
+import com.reckue.account.transfer.AccountTransfer;
+import com.reckue.account.transfer.RoleTransfer;
+import org.dozer.Mapper;
+import org.dozer.MappingException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class AccountTransferMapper represents a hand-written mapper of accounts and roles to their DTOs.
+ * The other mappings are delegated to the passed Dozer mapper.
+ *
+ * @author Kamila Meshcheryakova
+ */
+public class AccountTransferMapper implements Mapper {
+
+    private final Mapper delegate;
+
+    public AccountTransferMapper(Mapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T map(Object source, Class<T> destinationClass) throws MappingException {
+        if (source instanceof Account && destinationClass == AccountTransfer.class) {
+            return (T) toTransfer((Account) source);
+        }
+        if (source instanceof Role && destinationClass == RoleTransfer.class) {
+            return (T) toTransfer((Role) source);
+        }
+        return delegate.map(source, destinationClass);
+    }
+
+    @Override
+    public void map(Object source, Object destination) throws MappingException {
+        delegate.map(source, destination);
+    }
+
+    @Override
+    public <T> T map(Object source, Class<T> destinationClass, String mapId) throws MappingException {
+        return delegate.map(source, destinationClass, mapId);
+    }
+
+    @Override
+    public void map(Object source, Object destination, String mapId) throws MappingException {
+        delegate.map(source, destination, mapId);
+    }
+
+    /**
+     * This method is used to convert the account to an outgoing DTO.
+     *
+     * @param account object of class Account
+     * @return the object of class AccountTransfer
+     */
+    public AccountTransfer toTransfer(Account account) {
+        AccountTransfer transfer = new AccountTransfer();
+        transfer.setId(account.getId());
+        transfer.setUsername(account.getUsername());
+        transfer.setEmail(account.getEmail());
+        transfer.setStatus(account.getStatus() != null ? account.getStatus().name() : null);
+        transfer.setCreated(account.getCreated());
+        transfer.setUpdated(account.getUpdated());
+        transfer.setLastVisit(account.getLastVisit());
+        if (account.getRoles() != null) {
+            Set<RoleTransfer> roles = new HashSet<>(account.getRoles().size() * 2);
+            for (Role role : account.getRoles()) {
+                roles.add(toTransfer(role));
+            }
+            transfer.setRoles(roles);
+        }
+        return transfer;
+    }
+
+    /**
+     * This method is used to convert the role to an outgoing DTO.
+     *
+     * @param role object of class Role
+     * @return the object of class RoleTransfer
+     */
+    public RoleTransfer toTransfer(Role role) {
+        RoleTransfer transfer = new RoleTransfer();
+        transfer.setName(role.getName());
+        return transfer;
+    }
+}
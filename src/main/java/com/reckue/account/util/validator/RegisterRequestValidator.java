@@ -0,0 +1,118 @@
+package com.reckue.account.util.validator;
+
+import com.reckue.account.exception.InvalidDataException;
+import com.reckue.account.transfer.RegisterRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class RegisterRequestValidator represents a validator of the register form.
+ * All the checks run in linear time without regular expressions.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@Component
+public class RegisterRequestValidator {
+
+    /**
+     * This method is used to check all the fields of the register form in a single pass.
+     * Throws {@link InvalidDataException} with all the found errors in case if any field is invalid.
+     *
+     * @param registerForm with required fields
+     */
+    public void validate(RegisterRequest registerForm) {
+        List<String> errors = new ArrayList<>(3);
+        if (registerForm.getUsername() == null || registerForm.getUsername().isEmpty()) {
+            errors.add("Username must not be empty.");
+        }
+        if (registerForm.getPassword() == null || !isValidPassword(registerForm.getPassword())) {
+            errors.add("Your password must contain at least 6 any symbols.");
+        }
+        if (registerForm.getEmail() == null || !isValidEmail(registerForm.getEmail())) {
+            errors.add("Please correct, it isn't an email. Use lowercase letters.");
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidDataException(String.join(" ", errors), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * This method is used to check the password as the expression "(.*).{6,}" does:
+     * the password contains at least 6 symbols and no line terminators.
+     *
+     * @param password the account password
+     * @return true or false
+     */
+    public static boolean isValidPassword(String password) {
+        int symbols = 0;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+            // a surrogate pair is a single symbol
+            if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(password.charAt(i - 1))) {
+                symbols++;
+            }
+        }
+        return symbols >= 6;
+    }
+
+    /**
+     * This method is used to check the email as the expression
+     * "\b[a-z0-9._%+-]+@[a-z0-9.-]+\.[a-z]{2,4}\b" does, but without backtracking.
+     *
+     * @param email the account email
+     * @return true or false
+     */
+    public static boolean isValidEmail(String email) {
+        int length = email.length();
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (at < 0) {
+                if (!isLowerAlphanumeric(c) && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+                    return false;
+                }
+            } else {
+                if (c == '.') {
+                    lastDot = i;
+                } else if (!isLowerAlphanumeric(c) && c != '-') {
+                    return false;
+                }
+            }
+        }
+        // the email starts with a word symbol, the local part and the domain aren't empty
+        if (at <= 0 || lastDot <= at + 1) {
+            return false;
+        }
+        char first = email.charAt(0);
+        if (!isLowerAlphanumeric(first) && first != '_') {
+            return false;
+        }
+        int zoneLength = length - lastDot - 1;
+        if (zoneLength < 2 || zoneLength > 4) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLowerAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+}
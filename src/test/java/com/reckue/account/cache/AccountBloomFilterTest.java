@@ -0,0 +1,116 @@
+package com.reckue.account.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class AccountBloomFilterTest checks which accounts the filter reports as possibly existing.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class AccountBloomFilterTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE accounts (username VARCHAR(255), email VARCHAR(255), created BIGINT)");
+        meterRegistry = new SimpleMeterRegistry();
+        insert("alice", "Alice@reckue.com", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void mightContainEverythingUntilBuilt() {
+        AccountBloomFilter filter = filter(true);
+
+        assertTrue(filter.mightContainUsername("bob"));
+        assertTrue(filter.mightContainEmail("bob@reckue.com"));
+    }
+
+    @Test
+    void rebuildReadsExistingAccounts() {
+        AccountBloomFilter filter = filter(true);
+        filter.rebuild();
+
+        assertTrue(filter.mightContainUsername("alice"));
+        assertTrue(filter.mightContainEmail("alice@RECKUE.com"));
+        assertFalse(filter.mightContainUsername("bob"));
+        assertFalse(filter.mightContainEmail("bob@reckue.com"));
+        assertEquals(1, meterRegistry.counter("account.lookups.skipped", "field", "username").count());
+        assertEquals(1, meterRegistry.counter("account.lookups.skipped", "field", "email").count());
+    }
+
+    @Test
+    void addMakesAccountPresent() {
+        AccountBloomFilter filter = filter(true);
+        filter.rebuild();
+        filter.add("bob", "bob@reckue.com");
+
+        assertTrue(filter.mightContainUsername("bob"));
+        assertTrue(filter.mightContainEmail("bob@reckue.com"));
+    }
+
+    @Test
+    void refreshReadsAccountsCreatedByOtherInstances() {
+        AccountBloomFilter filter = filter(true);
+        filter.rebuild();
+        // created within the overlap before the latest account read by the scan
+        insert("bob", "bob@reckue.com", 500);
+        insert("carol", "carol@reckue.com", 2000);
+        filter.refresh();
+
+        assertTrue(filter.mightContainUsername("bob"));
+        assertTrue(filter.mightContainUsername("carol"));
+        assertFalse(filter.mightContainUsername("dave"));
+    }
+
+    @Test
+    void rebuildForgetsDeletedAccounts() {
+        AccountBloomFilter filter = filter(true);
+        filter.rebuild();
+        jdbcTemplate.update("DELETE FROM accounts WHERE username = 'alice'");
+        filter.rebuild();
+
+        assertFalse(filter.mightContainUsername("alice"));
+    }
+
+    @Test
+    void disabledFilterContainsEverything() {
+        AccountBloomFilter filter = filter(false);
+        filter.rebuild();
+        filter.refresh();
+
+        assertTrue(filter.mightContainUsername("bob"));
+        assertTrue(filter.mightContainEmail("bob@reckue.com"));
+    }
+
+    private AccountBloomFilter filter(boolean enabled) {
+        return new AccountBloomFilter(database, new DataSourceTransactionManager(database), meterRegistry,
+                enabled, 1000, 0.0001, 1000, 100);
+    }
+
+    private void insert(String username, String email, long created) {
+        jdbcTemplate.update("INSERT INTO accounts (username, email, created) VALUES (?, ?, ?)",
+                username, email, created);
+    }
+}
@@ -0,0 +1,100 @@
+package com.reckue.account.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Class JwtKeyRingTest checks the rotation of the keys generated in memory.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class JwtKeyRingTest {
+
+    private static final long DAY = 86_400_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void generatedKeysRequireExplicitPermission() {
+        assertThrows(IllegalStateException.class, () -> ring(DAY, DAY, false));
+    }
+
+    @Test
+    void nextKeyIsPublishedBeforeItIsUsed() throws IOException {
+        JwtKeyRing ring = ring(DAY, DAY, true);
+
+        Set<String> published = publishedIds(ring);
+        assertEquals(2, published.size());
+        assertSame(ring.getActive(), ring.get(ring.getActive().getId()));
+        assertNull(ring.get("unknown"));
+        assertNull(ring.get(null));
+    }
+
+    @Test
+    void refreshKeepsActiveKeyUntilRotationInterval() {
+        JwtKeyRing ring = ring(DAY, DAY, true);
+        JwtKeyRing.SigningKey active = ring.getActive();
+        String etag = ring.getJwkSet().getEtag();
+        ring.refresh();
+
+        assertSame(active, ring.getActive());
+        assertEquals(etag, ring.getJwkSet().getEtag());
+    }
+
+    @Test
+    void rotationActivatesPublishedKeyAndKeepsRetiredOne() throws IOException {
+        JwtKeyRing ring = ring(0, DAY, true);
+        JwtKeyRing.SigningKey retired = ring.getActive();
+        Set<String> published = publishedIds(ring);
+        String etag = ring.getJwkSet().getEtag();
+        ring.refresh();
+
+        JwtKeyRing.SigningKey active = ring.getActive();
+        // the new active key was published by the previous key set
+        assertNotEquals(retired.getId(), active.getId());
+        assertEquals(published, Set.of(retired.getId(), active.getId()));
+        assertNotNull(active.getSigner());
+        // the retired key only verifies the tokens issued with it
+        assertNull(ring.get(retired.getId()).getSigner());
+        assertNotNull(ring.get(retired.getId()).getVerifier());
+        assertEquals(3, publishedIds(ring).size());
+        assertNotEquals(etag, ring.getJwkSet().getEtag());
+    }
+
+    @Test
+    void rotationRemovesRetiredKeysAfterRetention() throws IOException {
+        JwtKeyRing ring = ring(0, 0, true);
+        String first = ring.getActive().getId();
+        ring.refresh();
+        String second = ring.getActive().getId();
+        ring.refresh();
+
+        assertNull(ring.get(first));
+        assertNotNull(ring.get(second));
+        assertEquals(3, publishedIds(ring).size());
+    }
+
+    private JwtKeyRing ring(long rotationInterval, long retention, boolean allowGenerated) {
+        return new JwtKeyRing(null, "PKCS12", "", "", rotationInterval, retention, allowGenerated, objectMapper);
+    }
+
+    private Set<String> publishedIds(JwtKeyRing ring) throws IOException {
+        Set<String> ids = new HashSet<>();
+        for (JsonNode key : objectMapper.readTree(ring.getJwkSet().getJson()).get("keys")) {
+            ids.add(key.get("kid").asText());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,117 @@
+package com.reckue.account.config;
+
+import com.reckue.account.util.helper.RequestUserHelper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Class ReplicaRoutingDataSourceTest checks which pool the connections of transactions are routed to.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        TransactionSynchronizationManager.clear();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void emptyReplicasRouteReadsToPrimary() {
+        ReplicaRoutingDataSource dataSource = routing();
+
+        assertEquals("primary", read(dataSource));
+        assertEquals("primary", write(dataSource));
+    }
+
+    @Test
+    void readsGoToReplicasInTurn() {
+        ReplicaRoutingDataSource dataSource = routing("replica-0", "replica-1");
+
+        assertEquals("replica-0", read(dataSource));
+        assertEquals("replica-1", read(dataSource));
+        assertEquals("replica-0", read(dataSource));
+        assertEquals("primary", write(dataSource));
+    }
+
+    @Test
+    void readsGoToPrimaryUntilLagIsMeasured() {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+                List.of(pool("replica-0")), "", 1000, 5000, new SimpleMeterRegistry());
+
+        assertEquals("primary", read(dataSource));
+        dataSource.checkLag();
+        assertEquals("replica-0", read(dataSource));
+    }
+
+    @Test
+    void readsOfUserFollowOwnWrite() {
+        ReplicaRoutingDataSource dataSource = routing("replica-0");
+        RequestUserHelper.setUserId("writer");
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        write(dataSource);
+
+        assertEquals("primary", read(dataSource));
+        RequestUserHelper.setUserId("reader");
+        assertEquals("replica-0", read(dataSource));
+    }
+
+    @Test
+    void onPrimaryRoutesReadsToPrimary() {
+        ReplicaRoutingDataSource dataSource = routing("replica-0");
+
+        assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> read(dataSource)));
+        assertEquals("replica-0", read(dataSource));
+    }
+
+    private ReplicaRoutingDataSource routing(String... replicas) {
+        List<HikariDataSource> replicaPools = new ArrayList<>();
+        for (String replica : replicas) {
+            replicaPools.add(pool(replica));
+        }
+        // without a lag query the replicas are never considered lagging
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(new DriverManagerDataSource(),
+                replicaPools, "", 1000, 5000, new SimpleMeterRegistry());
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pools.add(pool);
+        return pool;
+    }
+
+    private static Object read(ReplicaRoutingDataSource dataSource) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        return dataSource.determineCurrentLookupKey();
+    }
+
+    private static Object write(ReplicaRoutingDataSource dataSource) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        return dataSource.determineCurrentLookupKey();
+    }
+}
@@ -0,0 +1,62 @@
+package com.reckue.account.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Class StripedRateLimiterStoreTest checks the counts of attempts kept in the stripes.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class StripedRateLimiterStoreTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private final StripedRateLimiterStore store = new StripedRateLimiterStore(1024);
+
+    @Test
+    void incrementCountsAttemptsOfKey() {
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, store.increment("alice", HOUR));
+        }
+    }
+
+    @Test
+    void incrementCountsKeysWithEqualHashCodeIndependently() {
+        // "Aa" and "BB" have the same String.hashCode
+        for (int i = 0; i < 5; i++) {
+            store.increment("Aa", HOUR);
+        }
+
+        assertEquals(1, store.increment("BB", HOUR));
+    }
+
+    @Test
+    void incrementCountsWindowsIndependently() {
+        store.increment("alice", HOUR);
+        store.increment("alice", HOUR);
+
+        assertEquals(1, store.increment("alice", 2 * HOUR));
+    }
+
+    @Test
+    void incrementForgetsAttemptsOfPassedWindows() throws InterruptedException {
+        long window = 50;
+        for (int i = 0; i < 3; i++) {
+            store.increment("alice", window);
+        }
+        // both the current and the previous window have passed
+        Thread.sleep(2 * window + 10);
+
+        assertEquals(1, store.increment("alice", window));
+    }
+
+    @Test
+    void incrementRejectsWindowShorterThanMinimum() {
+        assertThrows(IllegalArgumentException.class,
+                () -> store.increment("alice", StripedRateLimiterStore.MIN_WINDOW - 1));
+        assertEquals(1, store.increment("alice", StripedRateLimiterStore.MIN_WINDOW));
+    }
+}
@@ -0,0 +1,111 @@
+package com.reckue.account.service;
+
+import com.reckue.account.cache.AccountBloomFilter;
+import com.reckue.account.cache.AccountCache;
+import com.reckue.account.exception.InvalidDataException;
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Role;
+import com.reckue.account.model.Status;
+import com.reckue.account.repository.AccountRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Class AccountServiceQueryCountTest checks that reading a page of accounts with their roles
+ * takes the same number of statements whatever the size of the page.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class AccountServiceQueryCountTest {
+
+    private static final int ACCOUNTS = 30;
+    private static final int[] PAGE_SIZES = {1, 5, 20};
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private AccountService accountService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountService(mock(AccountCache.class), mock(AccountBloomFilter.class),
+                accountRepository, mock(PasswordEncoder.class), mock(RoleRegistry.class));
+        ReflectionTestUtils.setField(accountService, "pageMaxSize", 100);
+        Role user = entityManager.persist(new Role("ROLE_USER"));
+        Role admin = entityManager.persist(new Role("ROLE_ADMIN"));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            entityManager.persist(Account.builder()
+                    .id(String.format("id-%02d", i))
+                    .username(String.format("user-%02d", i))
+                    .email(String.format("user-%02d@reckue.com", i))
+                    .password("password")
+                    .status(Status.ACTIVE)
+                    .roles(i % 2 == 0 ? Set.of(user, admin) : Set.of(user))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllTakesFixedQueryCountPerPage() {
+        for (int size : PAGE_SIZES) {
+            statistics.clear();
+            List<Account> accounts = accountService.findAll(size, 0, "id", false);
+
+            assertEquals(size, accounts.size());
+            accounts.forEach(account -> assertTrue(account.getRoles().size() > 0));
+            // the page, the count and the roles of the whole page
+            assertEquals(3, statistics.getPrepareStatementCount(), "statements for a page of " + size);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void findAllAfterTakesFixedQueryCountPerPage() {
+        for (int size : PAGE_SIZES) {
+            statistics.clear();
+            Slice<Account> slice = accountService.findAllAfter(size, null, "id", false);
+
+            assertEquals(size, slice.getNumberOfElements());
+            slice.forEach(account -> assertTrue(account.getRoles().size() > 0));
+            // the slice and the roles of the whole slice
+            assertEquals(2, statistics.getPrepareStatementCount(), "statements for a slice of " + size);
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    void findAllAfterRejectsSliceOverMaximum() {
+        assertThrows(InvalidDataException.class, () -> accountService.findAllAfter(101, null, "id", false));
+        assertThrows(InvalidDataException.class,
+                () -> accountService.findAllAfter(Integer.MAX_VALUE, null, "id", false));
+    }
+}
@@ -0,0 +1,171 @@
+package com.reckue.account.service;
+
+import com.reckue.account.cache.AccountBloomFilter;
+import com.reckue.account.cache.AccountCache;
+import com.reckue.account.config.BoundedPasswordEncoder;
+import com.reckue.account.exception.AccessDeniedException;
+import com.reckue.account.model.Account;
+import com.reckue.account.model.Status;
+import com.reckue.account.repository.AccountRepository;
+import com.reckue.account.repository.RoleRepository;
+import com.reckue.account.transfer.RegisterRequest;
+import com.reckue.account.util.validator.RegisterRequestValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Class AuthServiceRegisterAllTest checks the results of registration of several accounts at once
+ * against a real database, each batch is committed the same way as in production.
+ *
+ * @author Kamila Meshcheryakova
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.jpa.database=H2",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceRegisterAllTest {
+
+    private static final Map<String, Object> PARTNER = Map.of("authorities", List.of("ROLE_PARTNER"));
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        // the unique indexes of the migrations, the email is compared as it is
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS accounts_username_key ON accounts (username)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS accounts_email_key ON accounts (email)");
+        passwordEncoder = new BoundedPasswordEncoder(NoOpPasswordEncoder.getInstance(), 2, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.destroy();
+        jdbcTemplate.execute("DELETE FROM role_accounts");
+        jdbcTemplate.execute("DELETE FROM accounts");
+    }
+
+    @Test
+    void registerAllReportsDuplicatesInsideBatch() {
+        List<AuthService.RegistrationResult> results = authService(accountRepository).registerAll(List.of(
+                form("alice", "alice@reckue.com"),
+                form("alice", "other@reckue.com"),
+                form("bob", "alice@reckue.com"),
+                form("carol", "carol@reckue.com")), PARTNER);
+
+        assertEquals(List.of(HttpStatus.CREATED, HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST, HttpStatus.CREATED),
+                statuses(results));
+        assertNotNull(results.get(0).getAccount());
+        assertNull(results.get(1).getAccount());
+        assertEquals(Set.of("alice", "carol"), usernames());
+    }
+
+    @Test
+    void registerAllReportsConflictsWithExistingAccounts() {
+        insertExisting("alice", "alice@reckue.com");
+
+        List<AuthService.RegistrationResult> results = authService(accountRepository).registerAll(List.of(
+                form("alice", "new@reckue.com"),
+                form("bob", "alice@reckue.com"),
+                form("carol", "carol@reckue.com")), PARTNER);
+
+        assertEquals(List.of(HttpStatus.BAD_REQUEST, HttpStatus.BAD_REQUEST, HttpStatus.CREATED), statuses(results));
+        assertEquals(Set.of("alice", "carol"), usernames());
+    }
+
+    @Test
+    void registerAllReportsAccountsRegisteredInTheMeantime() {
+        insertExisting("alice", "alice@reckue.com");
+        // the existing account is missed by the checks, so only the insert of its batch detects it
+        AccountRepository racingRepository = mock(AccountRepository.class, delegatesTo(accountRepository));
+        doReturn(List.of()).when(racingRepository).findExistingUsernames(any());
+        doReturn(List.of()).when(racingRepository).findExistingEmails(any());
+
+        List<AuthService.RegistrationResult> results = authService(racingRepository).registerAll(List.of(
+                form("bob", "bob@reckue.com"),
+                form("alice", "new@reckue.com"),
+                form("carol", "carol@reckue.com")), PARTNER);
+
+        assertEquals(List.of(HttpStatus.CREATED, HttpStatus.BAD_REQUEST, HttpStatus.CREATED), statuses(results));
+        assertEquals(Set.of("alice", "bob", "carol"), usernames());
+        assertEquals(2, (long) jdbcTemplate.queryForObject("SELECT count(*) FROM role_accounts", Long.class));
+    }
+
+    @Test
+    void registerAllRequiresAdminOrPartner() {
+        assertThrows(AccessDeniedException.class, () -> authService(accountRepository).registerAll(
+                List.of(form("alice", "alice@reckue.com")), Map.of("authorities", List.of("ROLE_USER"))));
+        assertEquals(Set.of(), usernames());
+    }
+
+    private AuthService authService(AccountRepository repository) {
+        AuthService authService = new AuthService(mock(AccountCache.class), mock(AccountBloomFilter.class),
+                repository, passwordEncoder, new RoleRegistry(roleRepository, transactionManager),
+                mock(LastVisitRecorder.class), mock(RefreshTokenStore.class), mock(TokenRevocationList.class),
+                mock(TokenStore.class), new RegisterRequestValidator(), transactionManager);
+        ReflectionTestUtils.setField(authService, "batchMaxSize", 100);
+        ReflectionTestUtils.setField(authService, "jdbcBatchSize", 2);
+        return authService;
+    }
+
+    private void insertExisting(String username, String email) {
+        accountRepository.save(Account.builder()
+                .id(username + "-existing")
+                .username(username)
+                .email(email)
+                .password("password")
+                .status(Status.ACTIVE)
+                .roles(Set.of())
+                .build());
+    }
+
+    private Set<String> usernames() {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT username FROM accounts", String.class));
+    }
+
+    private static RegisterRequest form(String username, String email) {
+        return new RegisterRequest(username, email, "password");
+    }
+
+    private static List<HttpStatus> statuses(List<AuthService.RegistrationResult> results) {
+        return results.stream().map(AuthService.RegistrationResult::getStatus).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,111 @@
+package com.reckue.account.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class LastVisitRecorderTest checks which visits are written by a flush.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class LastVisitRecorderTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void flushWritesLatestVisitOfEachAccountInOrder() {
+        LastVisitRecorder recorder = recorder(10, LastVisitRecorder.OverflowPolicy.FLUSH);
+        recorder.record("b", 200);
+        recorder.record("a", 300);
+        recorder.record("b", 100);
+        recorder.flush();
+
+        assertEquals(List.of(List.of(300L, "a", 300L), List.of(200L, "b", 200L)), flushed(1).get(0));
+    }
+
+    @Test
+    void flushWithoutVisitsWritesNothing() {
+        recorder(10, LastVisitRecorder.OverflowPolicy.FLUSH).flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void failedFlushReturnsVisitsToQueue() {
+        LastVisitRecorder recorder = recorder(10, LastVisitRecorder.OverflowPolicy.FLUSH);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        recorder.record("a", 100);
+        recorder.flush();
+        recorder.record("a", 50);
+        recorder.flush();
+
+        assertEquals(List.of(List.of(100L, "a", 100L)), flushed(2).get(1));
+    }
+
+    @Test
+    void fullQueueDropsVisitsOfNewAccounts() {
+        LastVisitRecorder recorder = recorder(2, LastVisitRecorder.OverflowPolicy.DROP);
+        recorder.record("a", 100);
+        recorder.record("b", 100);
+        recorder.record("c", 100);
+        recorder.record("a", 200);
+        recorder.flush();
+
+        assertEquals(List.of(List.of(200L, "a", 200L), List.of(100L, "b", 100L)), flushed(1).get(0));
+        assertEquals(1, meterRegistry.counter("account.last-visit.dropped").count());
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Date.class));
+    }
+
+    @Test
+    void fullQueueRequestsSingleEarlyFlush() {
+        LastVisitRecorder recorder = recorder(2, LastVisitRecorder.OverflowPolicy.FLUSH);
+        recorder.record("a", 100);
+        recorder.record("b", 100);
+        recorder.record("c", 100);
+        recorder.record("d", 100);
+        // the queue grows up to twice its size until the flush takes it
+        recorder.record("e", 100);
+
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Date.class));
+        assertEquals(1, meterRegistry.counter("account.last-visit.dropped").count());
+        recorder.flush();
+        assertEquals(4, flushed(1).get(0).size());
+    }
+
+    private LastVisitRecorder recorder(int maxPending, LastVisitRecorder.OverflowPolicy overflowPolicy) {
+        return new LastVisitRecorder(jdbcTemplate, mock(PlatformTransactionManager.class), taskScheduler,
+                meterRegistry, maxPending, overflowPolicy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<List<Object>>> flushed(int flushes) {
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(flushes)).batchUpdate(anyString(), batches.capture());
+        return batches.getAllValues().stream()
+                .map(batch -> batch.stream().map(List::of).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.reckue.account.service;
+
+import com.reckue.account.util.helper.TimestampHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class TokenRevocationListTest checks which tokens are reported as revoked
+ * on the instance which revoked them and on the other instances.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class TokenRevocationListTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE token_revocations (id BIGINT AUTO_INCREMENT PRIMARY KEY, jti VARCHAR(64), "
+                + "account_id VARCHAR(255) NOT NULL, issued_before BIGINT, expires BIGINT NOT NULL, "
+                + "created BIGINT NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void revokeRevokesOnlyThatToken() {
+        TokenRevocationList list = list(HOUR);
+        list.revoke("jti-1", "alice", now() + HOUR);
+
+        assertTrue(list.isRevoked(Map.of("jti", "jti-1", "userId", "alice")));
+        assertFalse(list.isRevoked(Map.of("jti", "jti-2", "userId", "alice")));
+    }
+
+    @Test
+    void revokeAllRevokesTokensIssuedBefore() {
+        TokenRevocationList list = list(HOUR);
+        list.revokeAll("alice");
+
+        assertTrue(list.isRevoked(Map.of("jti", "jti-1", "userId", "alice", "issued", now() - HOUR)));
+        assertTrue(list.isRevoked(Map.of("jti", "jti-1", "userId", "alice")));
+        assertFalse(list.isRevoked(Map.of("jti", "jti-1", "userId", "alice", "issued", now() + HOUR)));
+        assertFalse(list.isRevoked(Map.of("jti", "jti-1", "userId", "bob", "issued", now() - HOUR)));
+    }
+
+    @Test
+    void refreshReadsRevocationsOfOtherInstances() {
+        TokenRevocationList list = list(HOUR);
+        TokenRevocationList other = list(HOUR);
+        list.revoke("jti-1", "alice", now() + HOUR);
+        list.revokeAll("bob");
+
+        assertFalse(other.isRevoked(Map.of("jti", "jti-1", "userId", "alice")));
+        other.refresh();
+        assertTrue(other.isRevoked(Map.of("jti", "jti-1", "userId", "alice")));
+        assertTrue(other.isRevoked(Map.of("jti", "jti-2", "userId", "bob", "issued", now() - HOUR)));
+    }
+
+    @Test
+    void refreshDropsExpiredRevocations() {
+        TokenRevocationList list = list(0);
+        list.revoke("jti-1", "alice", now() - 1);
+        list.revokeAll("bob");
+        list.refresh();
+
+        assertFalse(list.isRevoked(Map.of("jti", "jti-1", "userId", "alice")));
+        assertFalse(list.isRevoked(Map.of("jti", "jti-2", "userId", "bob", "issued", now() - HOUR)));
+    }
+
+    @Test
+    void sweepDeletesExpiredRevocationsInBatches() {
+        TokenRevocationList list = list(HOUR);
+        for (int i = 0; i < 5; i++) {
+            list.revoke("expired-" + i, "alice", now() - 1);
+        }
+        list.revoke("jti-1", "alice", now() + HOUR);
+        list.sweep();
+
+        assertEquals("jti-1", jdbcTemplate.queryForObject("SELECT jti FROM token_revocations", String.class));
+    }
+
+    private TokenRevocationList list(long accountTtl) {
+        return new TokenRevocationList(jdbcTemplate, new SimpleMeterRegistry(), accountTtl, 10000, 2);
+    }
+
+    private static long now() {
+        return TimestampHelper.getCurrentTimestamp();
+    }
+}
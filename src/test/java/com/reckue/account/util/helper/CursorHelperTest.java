@@ -0,0 +1,57 @@
+package com.reckue.account.util.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class CursorHelperTest checks the encoding of continuation tokens.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class CursorHelperTest {
+
+    @Test
+    void decodeReturnsEncodedPosition() {
+        String cursor = CursorHelper.encode("username", true, "alice", "id-1");
+
+        assertArrayEquals(new String[]{"username", "desc", "alice", "id-1"}, CursorHelper.decode(cursor));
+    }
+
+    @Test
+    void encodeProducesUrlSafeToken() {
+        String cursor = CursorHelper.encode("username", false, "?>?>\u00ff\u00fe", "id-1");
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+
+    @Test
+    void decodeKeepsSeparatorInsideKey() {
+        String cursor = CursorHelper.encode("username", false, "a\u0000b", "id-1");
+
+        assertArrayEquals(new String[]{"username", "asc", "a\u0000b", "id-1"}, CursorHelper.decode(cursor));
+    }
+
+    @Test
+    void decodeKeepsEmptyKey() {
+        String cursor = CursorHelper.encode("username", false, "", "id-1");
+
+        assertArrayEquals(new String[]{"username", "asc", "", "id-1"}, CursorHelper.decode(cursor));
+    }
+
+    @Test
+    void decodeRejectsMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> CursorHelper.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorHelper.decode(encode("username")));
+        assertThrows(IllegalArgumentException.class, () -> CursorHelper.decode(encode("username\u0000asc")));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
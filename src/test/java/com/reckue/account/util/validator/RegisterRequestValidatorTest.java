@@ -0,0 +1,85 @@
+package com.reckue.account.util.validator;
+
+import com.reckue.account.exception.InvalidDataException;
+import com.reckue.account.transfer.RegisterRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Class RegisterRequestValidatorTest checks that the validator accepts the same values
+ * as the regular expressions it replaced.
+ *
+ * @author Kamila Meshcheryakova
+ */
+class RegisterRequestValidatorTest {
+
+    private static final String PASSWORD_REGEX = "(.*).{6,}";
+    private static final String EMAIL_REGEX = "\\b[a-z0-9._%+-]+@[a-z0-9.-]+\\.[a-z]{2,4}\\b";
+
+    private final RegisterRequestValidator validator = new RegisterRequestValidator();
+
+    @Test
+    void validateAcceptsValidForm() {
+        assertDoesNotThrow(() -> validator.validate(new RegisterRequest("alice", "alice@reckue.com", "secret")));
+    }
+
+    @Test
+    void validateReportsAllInvalidFields() {
+        InvalidDataException exception = assertThrows(InvalidDataException.class,
+                () -> validator.validate(new RegisterRequest("", "Alice@reckue.com", "short")));
+
+        assertEquals("Username must not be empty. Your password must contain at least 6 any symbols. "
+                + "Please correct, it isn't an email. Use lowercase letters.", exception.getMessage());
+    }
+
+    @Test
+    void validateRejectsMissingFields() {
+        assertThrows(InvalidDataException.class, () -> validator.validate(new RegisterRequest(null, null, null)));
+    }
+
+    @Test
+    void isValidPasswordMatchesRegex() {
+        List<String> passwords = List.of("", "12345", "123456", "secret password", "12345\n6", "\r123456",
+                "abc def", "\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00",
+                "\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00abc", "\uDE00\uD83Dabcd");
+        for (String password : passwords) {
+            assertEquals(password.matches(PASSWORD_REGEX), RegisterRequestValidator.isValidPassword(password),
+                    "password '" + password + "'");
+        }
+    }
+
+    @Test
+    void isValidEmailMatchesRegex() {
+        List<String> emails = List.of("alice@reckue.com", "a.b_c%d+e-f@mail.reckue.io", "_alice@reckue.com",
+                "alice@reckue.c", "alice@reckue.comru", "alice@reckue", "@reckue.com", "alice@.com",
+                "alice@@reckue.com", "Alice@reckue.com", "alice@Reckue.com", "alice@reckue.Com", ".alice@reckue.com",
+                "-alice@reckue.com", "alice@reck_ue.com", "alice@reckue.com.", "alice@reckue..com", "alice@-.com",
+                "alice@reckue.c0m", "alice@re@ckue.com", "alice reckue.com", "");
+        for (String email : emails) {
+            assertEquals(email.matches(EMAIL_REGEX), RegisterRequestValidator.isValidEmail(email),
+                    "email '" + email + "'");
+        }
+    }
+
+    @Test
+    void isValidEmailMatchesRegexOnRandomValues() {
+        String alphabet = "abz09._%+-@A";
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder email = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                email.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String value = email.toString();
+            assertEquals(value.matches(EMAIL_REGEX), RegisterRequestValidator.isValidEmail(value),
+                    "email '" + value + "'");
+        }
+    }
+}